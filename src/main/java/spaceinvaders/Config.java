@@ -16,6 +16,9 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 import java.util.logging.Logger;
 import javax.imageio.ImageIO;
+import spaceinvaders.utility.GameExecutionEnum;
+import spaceinvaders.utility.TcpFrontEndEnum;
+import spaceinvaders.utility.WaitStrategyEnum;
 
 /**
  * Main configuraion manager.
@@ -42,6 +45,74 @@ public class Config {
    */
   private Boolean lanGame;
 
+  /** How the server runs its games. */
+  private GameExecutionEnum gameExecution = GameExecutionEnum.THREAD_PER_GAME;
+
+  /**
+   * Number of simulation threads used when games are {@link GameExecutionEnum#SHARDED sharded}.
+   *
+   * <p>If not positive, one thread per available processor is used.
+   */
+  private Integer simulationThreads = 0;
+
+  /** Maximum number of connections the server keeps open at the same time. */
+  private Integer maxConnections = 12;
+
+  /**
+   * Maximum number of connections which may wait for a free slot, once the server is full.
+   *
+   * <p>Connections arriving when the backlog is full are refused right away.
+   */
+  private Integer connectionBacklog = 16;
+
+  /** How long a connection may wait in the backlog before being refused. */
+  private Integer backlogTimeoutMilliseconds = 5000;
+
+  /** How long a new player may take to send its configuration, once it has been given an ID. */
+  private Integer handshakeTimeoutMilliseconds = 3000;
+
+  /**
+   * How long a player may wait for a full team before a game starts with fewer players.
+   *
+   * <p>If set to 0, players always wait for a full team.
+   */
+  private Integer backfillSeconds = 0;
+
+  /**
+   * Number of threads which send UDP packets.
+   *
+   * <p>Every client is served by one of them, picked by its address.
+   */
+  private Integer udpSenderThreads = 1;
+
+  /**
+   * Maximum number of UDP packets waiting to be dispatched, and of batches waiting for each UDP
+   * sender. Packets which do not fit are dropped.
+   */
+  private Integer packetQueueCapacity = 4096;
+
+  /** How the threads which take packets out of the UDP queues wait for them. */
+  private WaitStrategyEnum packetQueueWaitStrategy = WaitStrategyEnum.PARK;
+
+  /**
+   * Number of threads which decode incoming UDP packets. Packets from the same client are always
+   * decoded by the same thread.
+   *
+   * <p>If not positive, one thread per available processor is used.
+   */
+  private Integer dispatcherThreads = 0;
+
+  /** How the server reads from TCP connections. */
+  private TcpFrontEndEnum tcpFrontEnd = TcpFrontEndEnum.SELECTOR;
+
+  /**
+   * Number of I/O threads used when TCP connections are read through a
+   * {@link TcpFrontEndEnum#SELECTOR selector}.
+   *
+   * <p>If not positive, one thread per available processor is used.
+   */
+  private Integer ioThreads = 0;
+
   /**
    * Get the single instance of this class.
    *
@@ -66,6 +137,58 @@ public class Config {
     return lanGame;
   }
 
+  public GameExecutionEnum getGameExecution() {
+    return gameExecution;
+  }
+
+  public int getSimulationThreads() {
+    return simulationThreads;
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public int getConnectionBacklog() {
+    return connectionBacklog;
+  }
+
+  public int getBacklogTimeoutMilliseconds() {
+    return backlogTimeoutMilliseconds;
+  }
+
+  public int getHandshakeTimeoutMilliseconds() {
+    return handshakeTimeoutMilliseconds;
+  }
+
+  public int getBackfillSeconds() {
+    return backfillSeconds;
+  }
+
+  public int getUdpSenderThreads() {
+    return udpSenderThreads;
+  }
+
+  public int getPacketQueueCapacity() {
+    return packetQueueCapacity;
+  }
+
+  public WaitStrategyEnum getPacketQueueWaitStrategy() {
+    return packetQueueWaitStrategy;
+  }
+
+  public int getDispatcherThreads() {
+    return dispatcherThreads;
+  }
+
+  public TcpFrontEndEnum getTcpFrontEnd() {
+    return tcpFrontEnd;
+  }
+
+  public int getIoThreads() {
+    return ioThreads;
+  }
+
   public String getGameConfigFile() {
     return CONFIG_PATH + "game.json";
   }
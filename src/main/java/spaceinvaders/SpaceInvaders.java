@@ -74,7 +74,8 @@ public class SpaceInvaders {
           ServiceController controller = new StandardController(server);
           ExecutorService controllerExecutor = Executors.newSingleThreadExecutor();
           Future<Void> controllerFuture = controllerExecutor.submit(controller);
-          System.out.println("Server started.\nEnter 'quit' to stop.\n");
+          System.out.println("Server started.\nEnter 'status' to see the running games.\n"
+              + "Enter 'quit' to stop.\n");
           server.call();
           controllerFuture.get();
           controllerExecutor.shutdownNow();
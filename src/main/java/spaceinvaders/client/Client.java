@@ -1,5 +1,7 @@
 package spaceinvaders.client;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.GameController;
@@ -30,10 +32,24 @@ public class Client implements Service<Void> {
     controller.registerView(userView);
   }
 
-  /** Display the start of the application (the menu). */
+  /**
+   * Display the start of the application (the menu).
+   *
+   * <p>If configured so, all images are read in the background meanwhile.
+   */
   @Override
   public Void call() {
     userView.showMenu();
+    if (ClientConfig.getInstance().isWarmUpSprites()) {
+      final ExecutorService warmUpExecutor = Executors.newSingleThreadExecutor();
+      warmUpExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          SpriteCache.getInstance().warmUp();
+        }
+      });
+      warmUpExecutor.shutdown();
+    }
     return null;
   }
 
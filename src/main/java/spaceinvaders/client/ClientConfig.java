@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import spaceinvaders.Config;
+import spaceinvaders.client.gui.RenderModeEnum;
 import spaceinvaders.exceptions.IllegalPortNumberException;
 import spaceinvaders.exceptions.InvalidServerAddressException;
 import spaceinvaders.exceptions.InvalidUserNameException;
@@ -23,6 +24,9 @@ public class ClientConfig {
   private Integer serverPort;
   private String userName;
   private Integer udpIncomingPort;
+  private Boolean binaryFrames;
+  private Boolean warmUpSprites;
+  private RenderModeEnum renderMode;
 
   private ClientConfig() {}
 
@@ -137,6 +141,21 @@ public class ClientConfig {
     this.serverPort = serverPort;
   }
 
+  /** Check if the server should send binary frames instead of JSON over UDP. */
+  public boolean isBinaryFrames() {
+    return binaryFrames != null && binaryFrames;
+  }
+
+  /** Check if all images should be read at startup, instead of when they are first drawn. */
+  public boolean isWarmUpSprites() {
+    return warmUpSprites != null && warmUpSprites;
+  }
+
+  /** How the game is drawn, {@link RenderModeEnum#PASSIVE passive} if not configured. */
+  public RenderModeEnum getRenderMode() {
+    return renderMode == null ? RenderModeEnum.PASSIVE : renderMode;
+  }
+
   public String getUserName() {
     return userName;
   }
@@ -0,0 +1,130 @@
+package spaceinvaders.client;
+
+import static java.util.logging.Level.SEVERE;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+import spaceinvaders.Config;
+import spaceinvaders.game.EntityEnum;
+
+/**
+ * All images used by the client, shared by the whole process.
+ *
+ * <p>The set of images is fixed when the cache is created: the avatars of all entities and the
+ * images listed in {@link ResourcesConfig}. Each of them is known by its resource path, and by an
+ * index which does not change. An image is read the first time it is asked for, unless the cache
+ * has been {@link #warmUp() warmed up}. Images handed out by the cache must not be modified.
+ *
+ * <p>The implementation is thread-safe.
+ */
+public class SpriteCache {
+  private static final Logger LOGGER = Logger.getLogger(SpriteCache.class.getName());
+  private static SpriteCache singleton;
+
+  private final List<String> paths;
+  private final Map<String,Integer> pathToIndex;
+  private final AtomicReferenceArray<BufferedImage> images;
+
+  private SpriteCache() {
+    final ResourcesConfig resources = ResourcesConfig.getInstance();
+    final List<String> allPaths = new ArrayList<>();
+    final Map<String,Integer> indexes = new HashMap<>();
+    for (EntityEnum type : EntityEnum.values()) {
+      for (String path : resources.getAvatars(type)) {
+        register(path,allPaths,indexes);
+      }
+    }
+    register(resources.getDefeatImage(),allPaths,indexes);
+    register(resources.getVictoryImage(),allPaths,indexes);
+    paths = Collections.unmodifiableList(allPaths);
+    pathToIndex = Collections.unmodifiableMap(indexes);
+    images = new AtomicReferenceArray<>(paths.size());
+  }
+
+  /** Singleton. */
+  public static synchronized SpriteCache getInstance() {
+    if (singleton == null) {
+      singleton = new SpriteCache();
+    }
+    return singleton;
+  }
+
+  /**
+   * Get the index of an image.
+   *
+   * @throws NullPointerException if the argument is {@code null} or it is not the path of an image
+   *     in the cache.
+   */
+  public int indexOf(String path) {
+    if (path == null) {
+      throw new NullPointerException();
+    }
+    final Integer index = pathToIndex.get(path);
+    if (index == null) {
+      throw new NullPointerException();
+    }
+    return index;
+  }
+
+  /**
+   * Get an image, reading it if this is the first time it is asked for.
+   *
+   * @return the image, or {@code null} if it could not be read.
+   *
+   * @throws IndexOutOfBoundsException if there is no image with this index.
+   */
+  public BufferedImage get(int index) {
+    BufferedImage image = images.get(index);
+    if (image == null) {
+      image = read(paths.get(index));
+      if (image != null && !images.compareAndSet(index,null,image)) {
+        // Another thread read it first.
+        image = images.get(index);
+      }
+    }
+    return image;
+  }
+
+  /**
+   * Get an image by its path.
+   *
+   * @return the image, or {@code null} if it could not be read.
+   *
+   * @throws NullPointerException if the argument is {@code null} or it is not the path of an image
+   *     in the cache.
+   */
+  public BufferedImage get(String path) {
+    return get(indexOf(path));
+  }
+
+  /** Read all images which have not been read yet. */
+  public void warmUp() {
+    for (int index = 0; index < paths.size(); ++index) {
+      get(index);
+    }
+  }
+
+  private static void register(String path, List<String> allPaths, Map<String,Integer> indexes) {
+    if (path != null && !indexes.containsKey(path)) {
+      indexes.put(path,allPaths.size());
+      allPaths.add(path);
+    }
+  }
+
+  private static BufferedImage read(String path) {
+    try {
+      return Config.getInstance().getImageResource(path);
+    } catch (IOException ioException) {
+      LOGGER.severe("Image: " + path);
+      LOGGER.log(SEVERE,ioException.toString(),ioException);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package spaceinvaders.client.gui;
+
+import static java.util.logging.Level.SEVERE;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.logging.Logger;
+import spaceinvaders.utility.Service;
+import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.TickScheduler;
+
+/**
+ * Draws the game on a thread of its own, at the refresh rate of the display.
+ *
+ * <p>The {@link GamePanel} keeps the scene, but it is not displayed. Instead, this canvas renders
+ * it through a {@link BufferStrategy} on every refresh, drawing entities part of the way between
+ * the last two frames received from the server. Nothing is drawn while the canvas is not showing.
+ */
+@SuppressWarnings("serial")
+class ActiveRenderer extends Canvas implements Service<Void> {
+  private static final Logger LOGGER = Logger.getLogger(ActiveRenderer.class.getName());
+  private static final int DEFAULT_REFRESH_RATE = 60;
+  private static final int BUFFERS = 2;
+
+  private final GamePanel gamePanel;
+  private final TickScheduler scheduler = new TickScheduler(getRefreshRate(),1);
+  private final ServiceState state = new ServiceState();
+
+  /**
+   * @param gamePanel holds the scene which is rendered.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public ActiveRenderer(GamePanel gamePanel) {
+    if (gamePanel == null) {
+      throw new NullPointerException();
+    }
+    this.gamePanel = gamePanel;
+    setBackground(Color.BLACK);
+    setIgnoreRepaint(true);
+    // Key events must keep going to the frame.
+    setFocusable(false);
+    state.set(true);
+  }
+
+  /**
+   * Start rendering.
+   *
+   * @throws InterruptedException if the service is interrupted prior to shutdown.
+   */
+  @Override
+  public Void call() throws InterruptedException {
+    scheduler.start();
+    try {
+      while (state.get()) {
+        scheduler.beginTick();
+        if (isShowing()) {
+          try {
+            render();
+          } catch (RuntimeException rte) {
+            // Do not stop rendering because of one frame.
+            if (state.get()) {
+              LOGGER.log(SEVERE,rte.toString(),rte);
+            }
+          }
+        }
+        scheduler.awaitNextTick();
+      }
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        throw new InterruptedException();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void shutdown() {
+    state.set(false);
+  }
+
+  private void render() {
+    BufferStrategy strategy = getBufferStrategy();
+    if (strategy == null) {
+      createBufferStrategy(BUFFERS);
+      strategy = getBufferStrategy();
+    }
+    do {
+      do {
+        final Graphics graphics = strategy.getDrawGraphics();
+        try {
+          graphics.setColor(getBackground());
+          graphics.fillRect(0,0,getWidth(),getHeight());
+          gamePanel.render(graphics,true);
+        } finally {
+          graphics.dispose();
+        }
+      } while (strategy.contentsRestored());
+      strategy.show();
+    } while (strategy.contentsLost());
+    Toolkit.getDefaultToolkit().sync();
+  }
+
+  private static int getRefreshRate() {
+    if (GraphicsEnvironment.isHeadless()) {
+      return DEFAULT_REFRESH_RATE;
+    }
+    final int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+        .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+    return refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_RATE : refreshRate;
+  }
+}
@@ -2,26 +2,25 @@ package spaceinvaders.client.gui;
 
 import static java.awt.BorderLayout.CENTER;
 import static java.awt.BorderLayout.WEST;
-import static java.util.logging.Level.SEVERE;
 import static javax.swing.JFrame.DO_NOTHING_ON_CLOSE;
 import static javax.swing.SwingConstants.LEFT;
+import static spaceinvaders.client.gui.RenderModeEnum.ACTIVE;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.KeyListener;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Logger;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.Box;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.border.EmptyBorder;
-import spaceinvaders.Config;
 import spaceinvaders.client.ClientConfig;
 import spaceinvaders.client.ResourcesConfig;
+import spaceinvaders.client.SpriteCache;
 import spaceinvaders.game.Entity;
 import spaceinvaders.game.EntityEnum;
 import spaceinvaders.game.GameConfig;
@@ -29,16 +28,15 @@ import spaceinvaders.utility.Couple;
 
 /** Frame active during the game time. */
 public class GameGraphics implements UiObject {
-  private static final Logger LOGGER = Logger.getLogger(GameGraphics.class.getName());
   private final ResourcesConfig resources = ResourcesConfig.getInstance();
   private final JFrame frame = new JFrame("SpaceInvaders");
   private final GamePanel gamePanel = new GamePanel();
+  private final ActiveRenderer renderer;
+  private final ExecutorService rendererExecutor;
   private final JLabel messageLbl = new JLabel();
   private final JLabel[] scoreLbl = new JLabel[1 + ClientConfig.getInstance().getMaxPlayers()]; 
   private final JLabel controlsLbl = new JLabel();
   private final List<Couple<Integer,Integer>> score = new ArrayList<>();
-  private final BufferedImage gameOverImg;
-  private final BufferedImage victoryImg;
   private List<Couple<Integer,String>> playerNames = new ArrayList<>();
 
   /** Construct an empty game frame. */
@@ -75,24 +73,30 @@ public class GameGraphics implements UiObject {
     messagePanel.setPreferredSize(
         new Dimension(msgPanelWidth,config.frame().getHeight()));
 
-    gamePanel.setPreferredSize(new Dimension(config.frame().getWidth(),config.frame().getHeight()));
-
+    final Dimension gameSize = new Dimension(config.frame().getWidth(),config.frame().getHeight());
     contentPane.add(messagePanel,WEST);
-    contentPane.add(gamePanel,CENTER);
+    if (ClientConfig.getInstance().getRenderMode() == ACTIVE) {
+      renderer = new ActiveRenderer(gamePanel);
+      renderer.setPreferredSize(gameSize);
+      contentPane.add(renderer,CENTER);
+      rendererExecutor = Executors.newSingleThreadExecutor();
+      rendererExecutor.submit(renderer);
+    } else {
+      renderer = null;
+      rendererExecutor = null;
+      gamePanel.setPreferredSize(gameSize);
+      contentPane.add(gamePanel,CENTER);
+    }
 
     frame.setContentPane(contentPane);
-
-    try {
-      gameOverImg = Config.getInstance().getImageResource(resources.getDefeatImage());
-      victoryImg = Config.getInstance().getImageResource(resources.getVictoryImage());
-    } catch (IOException ioException) {
-      LOGGER.log(SEVERE,ioException.toString(),ioException);
-      throw new AssertionError();
-    }
   }
 
   @Override
   public void destroy() {
+    if (renderer != null) {
+      renderer.shutdown();
+      rendererExecutor.shutdownNow();
+    }
     frame.dispose();
   }
 
@@ -122,10 +126,17 @@ public class GameGraphics implements UiObject {
     gamePanel.init();
   }
 
-  /** Repainting data on the screen. */
+  /**
+   * Repainting data on the screen.
+   *
+   * <p>In {@link RenderModeEnum#ACTIVE active} mode, the data is only handed to the renderer.
+   */
   public void flush() {
-    gamePanel.repaint();
-    gamePanel.revalidate();
+    gamePanel.publish();
+    if (renderer == null) {
+      gamePanel.repaint();
+      gamePanel.revalidate();
+    }
   }
 
   /**
@@ -162,12 +173,12 @@ public class GameGraphics implements UiObject {
 
   /** Display a game over image on the game panel. */
   public void showDefeatImage() {
-    gamePanel.showImage(gameOverImg);
+    gamePanel.showImage(SpriteCache.getInstance().get(resources.getDefeatImage()));
   }
 
   /** Display a victory image on the game panel. */
   public void showVictoryImage() {
-    gamePanel.showImage(victoryImg);
+    gamePanel.showImage(SpriteCache.getInstance().get(resources.getVictoryImage()));
   }
 
   /** Change score. */
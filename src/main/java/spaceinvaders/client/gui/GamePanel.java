@@ -8,17 +8,15 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.TimeUnit;
 import javax.swing.JPanel;
-import spaceinvaders.client.gui.entities.Drawable;
 import spaceinvaders.client.gui.entities.GraphicalEntity;
-import spaceinvaders.client.gui.entities.GraphicalEntityVisitor;
 import spaceinvaders.client.gui.entities.GraphicsFactory;
 import spaceinvaders.client.gui.entities.PaintingVisitor;
 import spaceinvaders.client.gui.entities.Player;
@@ -26,23 +24,41 @@ import spaceinvaders.game.Entity;
 import spaceinvaders.game.EntityEnum;
 import spaceinvaders.game.GameConfig;
 import spaceinvaders.utility.Couple;
+import spaceinvaders.utility.TripleBuffer;
 
 /**
  * Main panel of the game.
  *
  * <p>Contains all the visible elements of the game environment. Controls painting and repainting.
+ *
+ * <p>Entities are changed only by the thread which executes the commands coming from the server.
+ * Painting does not look at them, but at the last {@link SceneFrame frame} captured out of them,
+ * which is published at every {@link #publish() flush}. Frames are handed over through a
+ * {@link TripleBuffer}, so neither side waits for the other.
+ *
+ * <p>The panel is either painted by Swing, or {@link #render(Graphics,boolean) rendered} by an
+ * {@link ActiveRenderer}, which is then the only one to look at the frames.
  */
 @SuppressWarnings("serial")
 class GamePanel extends JPanel {
+  private static final Font NAME_FONT = new Font("Courier",Font.BOLD,15);
+  /* Frames further apart are not interpolated, the entities jump instead. */
+  private static final long MAX_MOVE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
   private final GraphicsFactory factory = GraphicsFactory.getInstance();
+  private final PaintingVisitor painter = new PaintingVisitor(this);
   private final NavigableMap<Integer,GraphicalEntity> entityMap = new TreeMap<>();
-  private final ReadWriteLock entitiesLock = new ReentrantReadWriteLock();
+  /* Updates which have not been applied yet, by ID. Empty outside of refreshEntities. */
+  private final Map<Integer,Entity> pendingUpdates = new HashMap<>();
+  private final TripleBuffer<SceneFrame> scene =
+      new TripleBuffer<>(new SceneFrame(),new SceneFrame(),new SceneFrame());
   private final SoundManager sound = new SoundManager();
   private final GameConfig config = GameConfig.getInstance();
   private Integer playerAvatarNumber;
   private BufferedImage centerImg;
   private Couple<Integer,Integer> centerImgPos;
-  private Boolean gameOn;
+  private volatile boolean gameOn;
+  private long lastPublishNanos;
   
   public GamePanel() {
     setBackground(Color.BLACK);
@@ -52,27 +68,45 @@ class GamePanel extends JPanel {
   @Override
   protected void paintComponent(Graphics graphics) {
     super.paintComponent(graphics);
+    render(graphics,false);
+  }
+
+  /**
+   * Draw the last published frame, or the image in the center once the game is over.
+   *
+   * <p>Must always be called from the same thread.
+   *
+   * @param interpolate whether to draw entities part of the way between the last two frames, as
+   *     far as the time since the last frame was published, instead of where they are.
+   */
+  void render(Graphics graphics, boolean interpolate) {
     if (gameOn) {
-      final GraphicalEntityVisitor painter = new PaintingVisitor(graphics,this);
+      final SceneFrame frame = scene.getFront();
       graphics.setColor(Color.WHITE);
-      graphics.setFont(new Font("Courier",Font.BOLD,15));
-      entitiesLock.readLock().lock();
-      for (Drawable entity : entityMap.values()) {
-        entity.draw(painter);
-      }
-      entitiesLock.readLock().unlock();
-    } else {
+      graphics.setFont(NAME_FONT);
+      painter.setGraphics(graphics);
+      painter.setProgress(interpolate ? frame.getProgress(System.nanoTime()) : 1);
+      frame.draw(painter);
+    } else if (centerImgPos != null) {
       graphics.drawImage(centerImg,centerImgPos.getFirst(),centerImgPos.getSecond(),this);
     }
   }
 
   /** Prepare the panel for a new game. */
   public void init() {
-    gameOn = true;
     playerAvatarNumber = 0;
-    entitiesLock.writeLock().lock();
     entityMap.clear();
-    entitiesLock.writeLock().unlock();
+    publish();
+    gameOn = true;
+  }
+
+  /** Make the current state of the entities the one which is painted. */
+  public void publish() {
+    final long now = System.nanoTime();
+    final long moveNanos = now - lastPublishNanos > MAX_MOVE_NANOS ? 0 : now - lastPublishNanos;
+    scene.getBack().capture(entityMap.values(),now,moveNanos);
+    scene.publish();
+    lastPublishNanos = now;
   }
 
   /**
@@ -94,7 +128,7 @@ class GamePanel extends JPanel {
     int posY = (config.frame().getHeight() - height) / 2;
     centerImgPos = new Couple<>(posX,posY);
     gameOn = false;
-    paintComponent(getGraphics());
+    repaint();
   }
 
   /**
@@ -105,49 +139,42 @@ class GamePanel extends JPanel {
    * accordingly. After this method is executed, the new set of entities is going to be equal with
    * the list of updates.
    *
+   * <p>The updates are indexed by ID, so the cost is linear in the number of entities and updates,
+   * apart from inserting new entities into the map.
+   *
    * @throws NullPointerException if argument is {@code null}.
    */
   public void refreshEntities(List<Entity> updates) {
     if (updates == null) {
       throw new NullPointerException();
     }
-    final List<Integer> elim = new ArrayList<>();
-    final boolean[] mark = new boolean[updates.size()];
-    entitiesLock.readLock().lock();
-    for (Map.Entry<Integer,GraphicalEntity> entry : entityMap.entrySet()) {
-      boolean found = false;
-      int index = 0;
+    try {
       for (Entity it : updates) {
-        if (entry.getKey().equals(it.getId())) {
-          found = true;
-          entry.getValue().relocate(it.getX(),it.getY());
-          mark[index] = true;
-          break;
-        }
-        ++index;
+        pendingUpdates.put(it.getId(),it);
       }
-      if (!found) {
-        elim.add(entry.getKey());
+
+      /* Relocate entities found in the updates, and remove the others. */
+      Iterator<Map.Entry<Integer,GraphicalEntity>> entries = entityMap.entrySet().iterator();
+      while (entries.hasNext()) {
+        Map.Entry<Integer,GraphicalEntity> entry = entries.next();
+        Entity update = pendingUpdates.remove(entry.getKey());
+        if (update == null) {
+          entries.remove();
+        } else {
+          entry.getValue().relocate(update.getX(),update.getY());
+        }
       }
-    }
-    entitiesLock.readLock().unlock();
-    
-    /* Remove entities not found in the updates. */
-    entitiesLock.writeLock().lock();
-    for (int key : elim) {
-      entityMap.remove(key);
-    }
 
-    /* Add entities not found in the map. */
-    int index = 0;
-    for (Entity it : updates) {
-      if (!mark[index]) {
-        GraphicalEntity spawned = factory.create(it);
-        entityMap.put(it.getId(),spawned);
+      /* Add entities not found in the map. */
+      for (Entity it : updates) {
+        Entity update = pendingUpdates.remove(it.getId());
+        if (update != null) {
+          entityMap.put(update.getId(),factory.create(update));
+        }
       }
-      ++index;
+    } finally {
+      pendingUpdates.clear();
     }
-    entitiesLock.writeLock().unlock();
   }
 
   /**
@@ -197,9 +224,7 @@ class GamePanel extends JPanel {
    * @param posY coordinate on y-axis.
    */
   public void spawnEntity(int id, EntityEnum type, int posX, int posY) {
-    entitiesLock.writeLock().lock();
     entityMap.put(id,factory.create(new Entity(type,id,posX,posY)));
-    entitiesLock.writeLock().unlock();
     if (type.equals(PLAYER_BULLET)) {
       sound.shooting();
     }
@@ -215,9 +240,7 @@ class GamePanel extends JPanel {
    * @throws NullPointerException if the {@code id} could not be found.
    */
   public void wipeOutEntity(int id) {
-    entitiesLock.writeLock().lock();
     GraphicalEntity entity = entityMap.remove(id);
-    entitiesLock.writeLock().unlock();
     if (entity == null) {
       throw new NullPointerException();
     }
@@ -236,12 +259,10 @@ class GamePanel extends JPanel {
    * @param offsetY offset on Y Axis.
    */
   public void translateGroup(EntityEnum type, int offsetX, int offsetY) {
-    entitiesLock.readLock().lock();
     for (GraphicalEntity entity : entityMap.values()) {
       if (entity.getType().equals(type)) {
         entity.translate(offsetX,offsetY);
       }
     }
-    entitiesLock.readLock().unlock();
   }
 }
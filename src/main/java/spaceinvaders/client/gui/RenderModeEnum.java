@@ -0,0 +1,12 @@
+package spaceinvaders.client.gui;
+
+/** The ways in which the game is drawn on the screen. */
+public enum RenderModeEnum {
+  /** Swing repaints the game whenever a frame arrives from the server. */
+  PASSIVE,
+  /**
+   * A thread of its own draws the game at the refresh rate of the display, moving entities
+   * smoothly between the last two frames.
+   */
+  ACTIVE
+}
@@ -0,0 +1,99 @@
+package spaceinvaders.client.gui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import spaceinvaders.client.gui.entities.GraphicalEntity;
+import spaceinvaders.client.gui.entities.GraphicalEntityVisitor;
+import spaceinvaders.client.gui.entities.GraphicsFactory;
+import spaceinvaders.game.Entity;
+import spaceinvaders.game.EntityEnum;
+
+/**
+ * All entities on the screen, as they were when the frame was captured.
+ *
+ * <p>The frame holds copies of the entities, so it can be painted while the originals change. The
+ * copies are kept from one capture to the next, and only created when there are more entities of a
+ * type than ever before.
+ *
+ * <p>Entities are drawn in batches, one type after the other, in the order of {@link EntityEnum}.
+ * Within a batch, they are drawn in the order in which they were captured.
+ *
+ * <p>Every entity also remembers where it was at the previous capture, so that the frame can be
+ * drawn at any point of the move between the two captures.
+ */
+class SceneFrame {
+  private static final EntityEnum[] TYPES = EntityEnum.values();
+
+  private final GraphicsFactory factory = GraphicsFactory.getInstance();
+  private final Map<EntityEnum,List<GraphicalEntity>> copies = new EnumMap<>(EntityEnum.class);
+  private final int[] usedCopies = new int[TYPES.length];
+  private long capturedNanos;
+  private long moveNanos;
+
+  /**
+   * Replace the contents of the frame.
+   *
+   * <p>The originals start their next move from where they are now.
+   *
+   * @param originals entities in the order in which they are drawn, within their type.
+   * @param capturedNanos when the capture happens, as given by {@link System#nanoTime()}.
+   * @param moveNanos how long it took the entities to move since the previous capture.
+   */
+  public void capture(Collection<GraphicalEntity> originals, long capturedNanos, long moveNanos) {
+    Arrays.fill(usedCopies,0);
+    for (GraphicalEntity original : originals) {
+      addCopyOf(original);
+      original.beginMove();
+    }
+    this.capturedNanos = capturedNanos;
+    this.moveNanos = moveNanos;
+  }
+
+  /**
+   * How much of the move to draw, if it is replayed at the speed at which it happened.
+   *
+   * @param nowNanos the current time, as given by {@link System#nanoTime()}.
+   *
+   * @return a value between 0, at the moment of the capture, and 1, once the move has been
+   *     replayed.
+   */
+  public float getProgress(long nowNanos) {
+    if (moveNanos <= 0 || nowNanos - capturedNanos >= moveNanos) {
+      return 1;
+    }
+    return Math.max(0,(float) (nowNanos - capturedNanos) / moveNanos);
+  }
+
+  /** Draw all entities of the frame. */
+  public void draw(GraphicalEntityVisitor painter) {
+    for (EntityEnum type : TYPES) {
+      final List<GraphicalEntity> pool = copies.get(type);
+      final int count = usedCopies[type.ordinal()];
+      for (int index = 0; index < count; ++index) {
+        pool.get(index).draw(painter);
+      }
+    }
+  }
+
+  private void addCopyOf(GraphicalEntity original) {
+    final EntityEnum type = original.getType();
+    List<GraphicalEntity> pool = copies.get(type);
+    if (pool == null) {
+      pool = new ArrayList<>();
+      copies.put(type,pool);
+    }
+    GraphicalEntity copy;
+    if (usedCopies[type.ordinal()] < pool.size()) {
+      copy = pool.get(usedCopies[type.ordinal()]);
+    } else {
+      copy = factory.create(new Entity(type,0,0));
+      pool.add(copy);
+    }
+    ++usedCopies[type.ordinal()];
+    copy.copyFrom(original);
+  }
+}
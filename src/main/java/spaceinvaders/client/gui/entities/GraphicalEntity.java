@@ -1,44 +1,42 @@
 package spaceinvaders.client.gui.entities;
 
-import static java.util.logging.Level.SEVERE;
-
 import java.awt.Image;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Logger;
-import spaceinvaders.Config;
+import spaceinvaders.client.SpriteCache;
 import spaceinvaders.game.Entity;
 import spaceinvaders.game.EntityEnum;
 
-/** Game entity that can be drawn on the screen. */
+/**
+ * Game entity that can be drawn on the screen.
+ *
+ * <p>Avatars are not held by the entity, which only knows their indexes in the
+ * {@link SpriteCache}.
+ */
 public abstract class GraphicalEntity implements Cloneable, Drawable {
-  private static final Logger LOGGER = Logger.getLogger(GraphicalEntity.class.getName());
-
-  private final List<BufferedImage> avatar = new ArrayList<>(); 
+  /* Shared by all clones, never modified. */
+  private final int[] avatars;
   private Entity body;
   private Integer avatarNumber = 0;
+  /* Where the current move started, for drawing the entity part of the way. */
+  private int startX;
+  private int startY;
 
   /**
-   * Load all avatars for a graphical entity.
+   * Look up all avatars for a graphical entity. They are read when first drawn.
    *
    * @param imgPath list of paths to all images.
    *
-   * @throws NullPointerException if argument is {@code null}.
+   * @throws NullPointerException if argument is {@code null} or an image is not in the
+   *     {@link SpriteCache}.
    */
   protected GraphicalEntity(List<String> imgPath) {
     if (imgPath == null) {
       throw new NullPointerException();
     }
-    final Config config = Config.getInstance();
-    for (int index = 0; index < imgPath.size(); ++index) {
-      try {
-        avatar.add(config.getImageResource(imgPath.get(index)));
-      } catch (IOException ioException) {
-        LOGGER.severe("Image: " + imgPath.get(index));
-        LOGGER.log(SEVERE,ioException.toString(),ioException);
-      }
+    final SpriteCache sprites = SpriteCache.getInstance();
+    avatars = new int[imgPath.size()];
+    for (int index = 0; index < avatars.length; ++index) {
+      avatars[index] = sprites.indexOf(imgPath.get(index));
     }
   }
 
@@ -61,6 +59,30 @@ public abstract class GraphicalEntity implements Cloneable, Drawable {
    */
   public void setBody(Entity body) {
     this.body = body;
+    beginMove();
+  }
+
+  /**
+   * Take over the position, the move and the look of {@code other}, which must be of the same
+   * type.
+   *
+   * @throws NullPointerException if an entity does not have a body.
+   */
+  public void copyFrom(GraphicalEntity other) {
+    relocate(other.getX(),other.getY());
+    startX = other.startX;
+    startY = other.startY;
+    avatarNumber = other.avatarNumber;
+  }
+
+  /**
+   * Start the next move from the current position.
+   *
+   * @throws NullPointerException if the entity does not have a body.
+   */
+  public void beginMove() {
+    startX = getX();
+    startY = getY();
   }
 
   /**
@@ -90,10 +112,12 @@ public abstract class GraphicalEntity implements Cloneable, Drawable {
   /**
    * Get the avatar corresponding to {@code index}.
    *
+   * @return the avatar, or {@code null} if it could not be read.
+   *
    * @throws IndexOutOfBoundsException - if {@code index} is out of bounds. 
    */
   protected Image getAvatar(int index) {
-    return avatar.get(index);
+    return SpriteCache.getInstance().get(avatars[index]);
   }
 
   protected int getAvatarNumber() {
@@ -119,4 +143,26 @@ public abstract class GraphicalEntity implements Cloneable, Drawable {
     }
     return body.getY();
   }
+
+  /**
+   * Coordinate on x-axis, part of the way from the start of the current move.
+   *
+   * @param progress how much of the move has been made, between 0 and 1.
+   *
+   * @throws NullPointerException if the entity does not have a body.
+   */
+  protected int getX(float progress) {
+    return startX + Math.round((getX() - startX) * progress);
+  }
+
+  /**
+   * Coordinate on y-axis, part of the way from the start of the current move.
+   *
+   * @param progress how much of the move has been made, between 0 and 1.
+   *
+   * @throws NullPointerException if the entity does not have a body.
+   */
+  protected int getY(float progress) {
+    return startY + Math.round((getY() - startY) * progress);
+  }
 }
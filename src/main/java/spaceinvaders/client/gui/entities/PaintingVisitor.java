@@ -1,7 +1,11 @@
 package spaceinvaders.client.gui.entities;
 
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.image.ImageObserver;
+import java.util.HashMap;
+import java.util.Map;
 import spaceinvaders.client.gui.entities.Invader;
 import spaceinvaders.client.gui.entities.InvaderBullet;
 import spaceinvaders.client.gui.entities.Player;
@@ -9,60 +13,112 @@ import spaceinvaders.client.gui.entities.PlayerBullet;
 import spaceinvaders.client.gui.entities.Shield;
 import spaceinvaders.game.GameConfig;
 
-/** Paints a GraphicalEntity on the screen. */
+/**
+ * Paints a GraphicalEntity on the screen.
+ *
+ * <p>Avatars are taken from a {@link SpriteAtlas}, already scaled. A painter is meant to be kept
+ * and reused for every paint, so that the atlas is built only once.
+ */
 public class PaintingVisitor implements GraphicalEntityVisitor {
   private final GameConfig config = GameConfig.getInstance();
-  private final Graphics graphics;
+  private final SpriteAtlas atlas = new SpriteAtlas();
+  private final Map<String,Integer> nameWidths = new HashMap<>();
   private final ImageObserver imgObserver;
+  private Graphics graphics;
+  private Font nameFont;
+  private float progress = 1;
 
   /**
-   * @param graphics graphics context.
    * @param imgObserver update interface for notifications about drawn images.
    *
-   * @throws NullPointerException if an argument is {@code null}.
+   * @throws NullPointerException if argument is {@code null}.
    */
-  public PaintingVisitor(Graphics graphics, ImageObserver imgObserver) {
-    if (graphics == null || imgObserver == null) {
+  public PaintingVisitor(ImageObserver imgObserver) {
+    if (imgObserver == null) {
       throw new NullPointerException();
     }
-    this.graphics = graphics;
     this.imgObserver = imgObserver;
   }
 
+  /**
+   * Paint on {@code graphics} from now on.
+   *
+   * <p>Names are written with the font of the graphics context.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public void setGraphics(Graphics graphics) {
+    if (graphics == null) {
+      throw new NullPointerException();
+    }
+    this.graphics = graphics;
+    if (!graphics.getFont().equals(nameFont)) {
+      nameFont = graphics.getFont();
+      nameWidths.clear();
+    }
+  }
+
+  /**
+   * Draw entities part of the way through their current move.
+   *
+   * @param progress how much of the move has been made, between 0 and 1. If 1, which is the
+   *     default, entities are drawn where they are.
+   *
+   * @throws IllegalArgumentException if {@code progress} is not between 0 and 1.
+   */
+  public void setProgress(float progress) {
+    if (!(progress >= 0 && progress <= 1)) {
+      throw new IllegalArgumentException();
+    }
+    this.progress = progress;
+  }
+
   @Override
   public void visit(Invader invader) {
-    graphics.drawImage(invader.getAvatar(invader.getAvatarNumber()),invader.getX(),invader.getY(),
-        config.invader().getWidth(),config.invader().getHeight(),imgObserver);
+    graphics.drawImage(atlas.get(invader,config.invader().getWidth(),config.invader().getHeight()),
+        invader.getX(progress),invader.getY(progress),imgObserver);
   }
 
   @Override
   public void visit(InvaderBullet invaderBullet) {
-    graphics.drawImage(invaderBullet.getAvatar(invaderBullet.getAvatarNumber()),
-        invaderBullet.getX(),invaderBullet.getY(),
-        config.invaderBullet().getWidth(),config.invaderBullet().getHeight(),imgObserver);
+    graphics.drawImage(atlas.get(invaderBullet,config.invaderBullet().getWidth(),
+        config.invaderBullet().getHeight()),
+        invaderBullet.getX(progress),invaderBullet.getY(progress),imgObserver);
   }
 
   @Override
   public void visit(Player player) {
-    graphics.drawImage(player.getAvatar(player.getAvatarNumber()),player.getX(),player.getY(),
-        config.player().getWidth(),config.player().getHeight(),imgObserver);
-    final int nameWidth = graphics.getFontMetrics().stringWidth(player.getName());
+    final int posX = player.getX(progress);
+    final int posY = player.getY(progress);
+    graphics.drawImage(atlas.get(player,config.player().getWidth(),config.player().getHeight()),
+        posX,posY,imgObserver);
+    final int nameWidth = getNameWidth(player.getName());
     graphics.drawString(
         player.getName(),
-        player.getX() + config.player().getWidth() / 2 - nameWidth / 2,
-        player.getY() + config.player().getHeight() + config.player().getHeight() / 3);
+        posX + config.player().getWidth() / 2 - nameWidth / 2,
+        posY + config.player().getHeight() + config.player().getHeight() / 3);
   }
 
   @Override
   public void visit(PlayerBullet playerBullet) {
-    graphics.drawImage(playerBullet.getAvatar(playerBullet.getAvatarNumber()),
-        playerBullet.getX(),playerBullet.getY(),
-        config.playerBullet().getWidth(),config.playerBullet().getHeight(),imgObserver);
+    graphics.drawImage(atlas.get(playerBullet,config.playerBullet().getWidth(),
+        config.playerBullet().getHeight()),
+        playerBullet.getX(progress),playerBullet.getY(progress),imgObserver);
   }
 
   @Override
   public void visit(Shield shield) {
-    graphics.drawImage(shield.getAvatar(shield.getAvatarNumber()),shield.getX(),shield.getY(),
-        config.shield().getWidth(),config.shield().getHeight(),imgObserver);
+    graphics.drawImage(atlas.get(shield,config.shield().getWidth(),config.shield().getHeight()),
+        shield.getX(progress),shield.getY(progress),imgObserver);
+  }
+
+  private int getNameWidth(String name) {
+    Integer width = nameWidths.get(name);
+    if (width == null) {
+      final FontMetrics metrics = graphics.getFontMetrics();
+      width = metrics.stringWidth(name);
+      nameWidths.put(name,width);
+    }
+    return width;
   }
 }
@@ -17,6 +17,12 @@ public class Player extends GraphicalEntity {
     visitor.visit(this);
   }
 
+  @Override
+  public void copyFrom(GraphicalEntity other) {
+    super.copyFrom(other);
+    name = ((Player) other).name;
+  }
+
   public String getName() {
     return name;
   }
@@ -0,0 +1,64 @@
+package spaceinvaders.client.gui.entities;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB_PRE;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import spaceinvaders.game.EntityEnum;
+
+/**
+ * Avatars scaled to the size at which they are drawn.
+ *
+ * <p>Each avatar is scaled once, the first time it is needed, into an image compatible with the
+ * screen. Drawing it afterwards is a plain copy, which Java2D can keep in video memory.
+ *
+ * <p>The implementation is not thread-safe.
+ */
+class SpriteAtlas {
+  private static final Image[] NO_SPRITES = new Image[0];
+
+  private final Map<EntityEnum,Image[]> sprites = new EnumMap<>(EntityEnum.class);
+
+  /**
+   * Get the current avatar of an entity, scaled to {@code width} x {@code height}.
+   *
+   * <p>All entities of a type must be drawn at the same size.
+   *
+   * @throws IndexOutOfBoundsException if the entity does not have its current avatar.
+   */
+  public Image get(GraphicalEntity entity, int width, int height) {
+    final int index = entity.getAvatarNumber();
+    Image[] scaled = sprites.get(entity.getType());
+    if (scaled == null || index >= scaled.length) {
+      scaled = Arrays.copyOf(scaled == null ? NO_SPRITES : scaled,index + 1);
+      sprites.put(entity.getType(),scaled);
+    }
+    if (scaled[index] == null) {
+      scaled[index] = scale(entity.getAvatar(index),width,height);
+    }
+    return scaled[index];
+  }
+
+  private static Image scale(Image avatar, int width, int height) {
+    BufferedImage image;
+    if (GraphicsEnvironment.isHeadless()) {
+      image = new BufferedImage(width,height,TYPE_INT_ARGB_PRE);
+    } else {
+      image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+          .getDefaultConfiguration().createCompatibleImage(width,height,Transparency.TRANSLUCENT);
+    }
+    Graphics2D graphics = image.createGraphics();
+    try {
+      graphics.drawImage(avatar,0,0,width,height,null);
+    } finally {
+      graphics.dispose();
+    }
+    return image;
+  }
+}
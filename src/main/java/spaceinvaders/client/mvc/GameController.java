@@ -13,10 +13,9 @@ import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Observable;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 import spaceinvaders.client.ClientConfig;
 import spaceinvaders.command.Command;
@@ -27,6 +26,7 @@ import spaceinvaders.exceptions.IllegalPortNumberException;
 import spaceinvaders.exceptions.InvalidServerAddressException;
 import spaceinvaders.exceptions.InvalidUserNameException;
 import spaceinvaders.utility.Chain;
+import spaceinvaders.utility.ServiceSupervisor;
 
 /**
  * Handles communication between one or more views and a model.
@@ -40,7 +40,6 @@ public class GameController implements Controller {
   private final Model model;
   private final List<View> views = new ArrayList<>();
   private final ExecutorService modelExecutor = Executors.newSingleThreadExecutor();
-  private final ExecutorService modelStateChecker = Executors.newSingleThreadExecutor();
   private Boolean shuttingDown = false;
 
   /**
@@ -118,33 +117,19 @@ public class GameController implements Controller {
         LOGGER.log(SEVERE,exception.toString(),exception);
         return;
       }
-      Future<?> modelFuture = modelExecutor.submit(model);
-      modelStateChecker.submit(new Callable<Void>() {
+      // The game is cleaned up as soon as the model stops.
+      ServiceSupervisor.submit(model,modelExecutor).whenComplete(new BiConsumer<Void,Throwable>() {
         @Override
-        public Void call() {
-          final int checkingRateMs = 500;
-          while (!modelFuture.isDone()) {
-            try {
-              Thread.sleep(checkingRateMs);
-            } catch (InterruptedException intException) {
-              if (!shuttingDown) {
-                LOGGER.log(SEVERE,intException.toString(),intException);
-              }
-              model.exitGame();
-              break;
-            }
-          }
+        public void accept(Void result, Throwable throwable) {
           try {
-            modelFuture.get();
-          } catch (Exception ex) {
-            if (!shuttingDown) {
-              displayErrorOnViews((Exception) ex.getCause());
-              LOGGER.log(SEVERE,ex.toString(),ex);
+            if (throwable != null && !shuttingDown) {
+              displayErrorOnViews(throwable instanceof Exception
+                  ? (Exception) throwable : new RuntimeException(throwable));
+              LOGGER.log(SEVERE,throwable.toString(),throwable);
             }
           } finally {
             model.exitGame();
           }
-          return null;
         }
       });
     }
@@ -161,7 +146,6 @@ public class GameController implements Controller {
         view.shutdown();
       }
       modelExecutor.shutdownNow();
-      modelStateChecker.shutdownNow();
     }
   }
 
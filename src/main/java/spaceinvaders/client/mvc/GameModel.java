@@ -3,23 +3,20 @@ package spaceinvaders.client.mvc;
 import static java.util.logging.Level.SEVERE;
 
 import java.util.Observable;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TransferQueue;
 import java.util.logging.Logger;
 import spaceinvaders.client.network.NetworkConnection;
 import spaceinvaders.command.Command;
-import spaceinvaders.command.CommandDirector;
-import spaceinvaders.command.client.ClientCommandBuilder;
 import spaceinvaders.exceptions.IllegalPortNumberException;
 import spaceinvaders.exceptions.SocketOpeningException;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.ServiceSupervisor;
 
 /**
  * Provides the game data.
@@ -30,7 +27,7 @@ import spaceinvaders.utility.ServiceState;
 public class GameModel implements Model {
   private static final Logger LOGGER = Logger.getLogger(GameModel.class.getName());
 
-  private final TransferQueue<String> incomingQueue = new LinkedTransferQueue<>();
+  private final TransferQueue<Command> incomingQueue = new LinkedTransferQueue<>();
   private final CommandDispatcher dispatcher = new CommandDispatcher();
   private final ExecutorService connectionExecutor = Executors.newSingleThreadExecutor();
   private final ExecutorService dispatcherExecutor = Executors.newSingleThreadExecutor();
@@ -56,24 +53,20 @@ public class GameModel implements Model {
          InterruptedException {
     // This will open up a network connection, and might throw exceptions.
     connection = new NetworkConnection(incomingQueue);
-    Future<?> connectionFuture = connectionExecutor.submit(connection);
-    final long checkingRateMilliseconds = 500;
+    final ServiceSupervisor supervisor = new ServiceSupervisor();
+    supervisor.start(connection,connectionExecutor);
     connectionState.set(true);
-    while (connectionState.get()) {
-      try {
-        if (connectionFuture.isDone()) {
-          connectionState.set(false);
-          gameState.set(false);
-          connectionFuture.get();
-        }
-        Thread.sleep(checkingRateMilliseconds);
-      } catch (CancellationException | InterruptedException exception) {
-        if (connectionState.get()) {
-          gameState.set(false);
-          throw new InterruptedException();
-        }
-        break;
+    try {
+      supervisor.await();
+    } catch (InterruptedException intException) {
+      if (connectionState.get()) {
+        connectionState.set(false);
+        gameState.set(false);
+        throw new InterruptedException();
       }
+    } finally {
+      connectionState.set(false);
+      gameState.set(false);
     }
     return null;
   }
@@ -135,23 +128,26 @@ public class GameModel implements Model {
     dispatcherExecutor.shutdownNow();
   }
 
-  /** Takes data out of the incoming queue and forwards it to the controller. */
+  /**
+   * Takes commands out of the incoming queue and forwards them to the controller.
+   *
+   * <p>Commands are decoded by the network receivers, before being queued.
+   */
   private class CommandDispatcher extends Observable implements Service<Void> {
     private final ServiceState state = new ServiceState();
 
     /** 
-     * Start deserializing and forwarding data.
+     * Start forwarding commands.
      *
      * @throws InterruptedException if the service is interrupted prior to shutdown.
      */
     @Override
     public Void call() throws InterruptedException {
-      CommandDirector director = new CommandDirector(new ClientCommandBuilder());
       state.set(true);
       while (state.get()) {
-        String data = null;
+        Command command = null;
         try {
-          data = incomingQueue.take();
+          command = incomingQueue.take();
         } catch (InterruptedException interruptedException) {
           connectionState.set(false);
           gameState.set(false);
@@ -161,19 +157,12 @@ public class GameModel implements Model {
           }
           break;
         }
-        if (data.equals("EOF")) {
-          // Connection over.
-          connectionState.set(false);
-          gameState.set(false);
-        } else {
-          try {
-            director.makeCommand(data);
-            setChanged();
-            // Notify the controller.
-            notifyObservers(director.getCommand());
-          } catch (Exception ex) {
-            LOGGER.log(SEVERE,ex.toString(),ex);
-          }
+        try {
+          setChanged();
+          // Notify the controller.
+          notifyObservers(command);
+        } catch (Exception ex) {
+          LOGGER.log(SEVERE,ex.toString(),ex);
         }
       }
       return null;
@@ -7,14 +7,10 @@ import java.net.SocketException;
 import java.net.DatagramSocket;
 import java.net.Socket;
 import java.net.SocketAddress;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.TransferQueue;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import spaceinvaders.client.ClientConfig;
 import spaceinvaders.command.Command;
@@ -22,6 +18,7 @@ import spaceinvaders.exceptions.IllegalPortNumberException;
 import spaceinvaders.exceptions.SocketOpeningException;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.ServiceSupervisor;
 import spaceinvaders.utility.Chain;
 
 /**
@@ -41,18 +38,19 @@ public class NetworkConnection implements Service<Void> {
   private final ExecutorService tcpReceiverExecutor;
   private final ExecutorService udpReceiverExecutor;
   private final ServiceState state = new ServiceState();
+  private final ServiceSupervisor supervisor = new ServiceSupervisor();
 
   /**
    * Configure a new network connection.
    *
-   * @param incomingQueue used for transfering incoming data.
+   * @param incomingQueue used for transfering incoming commands.
    *
    * @throws SocketOpeningException if a socket could not be opened.
    * @throws IllegalPortNumberException if the port parameter is not a valid port value.
    * @throws NullPointerException if argument is {@code null}.
    * @throws SecurityException if a security manager doesn't allow an operation.
    */
-  public NetworkConnection(TransferQueue<String> incomingQueue) throws SocketOpeningException {
+  public NetworkConnection(TransferQueue<Command> incomingQueue) throws SocketOpeningException {
     ClientConfig config = ClientConfig.getInstance();
     if (incomingQueue == null) {
       throw new NullPointerException();
@@ -104,27 +102,17 @@ public class NetworkConnection implements Service<Void> {
    */
   @Override
   public Void call() throws ExecutionException, InterruptedException {
-    List<Future<?>> future = new ArrayList<>();
-    future.add(tcpReceiverExecutor.submit(tcpReceiver));
-    future.add(udpReceiverExecutor.submit(udpReceiver));
-    final long checkingRateMilliseconds = 500;
-    while (state.get()) {
-      try {
-        for (Future<?> it : future) {
-          if (it.isDone()) {
-            state.set(false);
-            it.get();
-            break;
-          }
-        }
-        Thread.sleep(checkingRateMilliseconds);
-      } catch (CancellationException | InterruptedException exception) {
-        if (state.get()) {
-          state.set(false);
-          throw new InterruptedException();
-        }
-        break;
+    supervisor.start(tcpReceiver,tcpReceiverExecutor);
+    supervisor.start(udpReceiver,udpReceiverExecutor);
+    try {
+      supervisor.await();
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        state.set(false);
+        throw new InterruptedException();
       }
+    } finally {
+      state.set(false);
     }
     return null;
   }
@@ -137,6 +125,7 @@ public class NetworkConnection implements Service<Void> {
   @Override
   public void shutdown() {
     state.set(false);
+    supervisor.stop();
     try {
       tcpSocket.close();
     } catch (IOException ioException) {
@@ -2,32 +2,44 @@ package spaceinvaders.client.network;
 
 import static java.util.logging.Level.SEVERE;
 
+import com.google.gson.JsonSyntaxException;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.Socket;
 import java.util.concurrent.TransferQueue;
 import java.util.logging.Logger;
+import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandDirector;
+import spaceinvaders.command.client.ClientCommandBuilder;
+import spaceinvaders.command.client.QuitGameCommand;
+import spaceinvaders.exceptions.CommandNotFoundException;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
 
-/** Receives data throught the TCP protocol. */
+/**
+ * Receives data throught the TCP protocol.
+ *
+ * <p>When the server closes the connection, a {@link QuitGameCommand} is passed on, instead of
+ * the end of the stream.
+ */
 class TcpReceiver implements Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(TcpReceiver.class.getName());
   private final BufferedReader reader;
-  private final TransferQueue<String> incomingQueue;
+  private final TransferQueue<Command> incomingQueue;
+  private final CommandDirector director = new CommandDirector(new ClientCommandBuilder());
   private final ServiceState state = new ServiceState();
 
   /**
    * Construct a receiver that will communicate through the open {@code socket}.
    *
    * @param socket an open socket through which data is received.
-   * @param incomingQueue a queue used to transfer incoming data.
+   * @param incomingQueue a queue used to transfer incoming commands.
    *
    * @throws IOException if the input stream cannot be opened, or if the socket is not connected.
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public TcpReceiver(Socket socket, TransferQueue<String> incomingQueue) throws IOException {
+  public TcpReceiver(Socket socket, TransferQueue<Command> incomingQueue) throws IOException {
     if (socket == null || incomingQueue == null) {
       throw new NullPointerException();
     }
@@ -48,12 +60,24 @@ class TcpReceiver implements Service<Void> {
           LOGGER.log(SEVERE,ioException.toString(),ioException);
         }
       }
+      Command command = null;
       if (data == null) {
-        /* EOF. */
-        data = new String("EOF");
+        /* EOF. Nothing to pass on if the receiver has been shut down locally. */
+        if (!state.get()) {
+          break;
+        }
+        command = new QuitGameCommand();
         state.set(false);
+      } else {
+        try {
+          director.makeCommand(data);
+          command = director.getCommand();
+        } catch (JsonSyntaxException | CommandNotFoundException exception) {
+          LOGGER.log(SEVERE,exception.toString(),exception);
+          continue;
+        }
       }
-      if (!incomingQueue.offer(data)) {
+      if (!incomingQueue.offer(command)) {
         // This should never happen.
         throw new AssertionError();
       }
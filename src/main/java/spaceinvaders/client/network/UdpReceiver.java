@@ -4,29 +4,42 @@ import static java.util.logging.Level.SEVERE;
 
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TransferQueue;
 import java.util.logging.Logger;
+import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandDirector;
+import spaceinvaders.command.client.ClientCommandBuilder;
+import spaceinvaders.command.client.FrameDecoder;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
 
-/** Receive data throught the UDP protocol. */
+/**
+ * Receive data throught the UDP protocol.
+ *
+ * <p>A packet holds either a JSON command or a binary frame with several commands.
+ */
 class UdpReceiver implements Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(UdpReceiver.class.getName());
-  private static final int MAX_PACKET_SIZE = 256;
+  private static final int MAX_PACKET_SIZE = 2048;
 
   private final ServiceState state = new ServiceState();
   private final DatagramSocket socket;
-  private final TransferQueue<String> incomingQueue;
+  private final TransferQueue<Command> incomingQueue;
+  private final CommandDirector director = new CommandDirector(new ClientCommandBuilder());
+  private final FrameDecoder decoder = new FrameDecoder();
+  private final List<Command> commands = new ArrayList<>();
 
   /**
    * Construct a receiver that will communicate through the open {@code socket}.
    *
    * @param socket an open socket throught which data is received.
-   * @param incomingQueue a queue used to transfer received data.
+   * @param incomingQueue a queue used to transfer received commands.
    *
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public UdpReceiver(DatagramSocket socket, TransferQueue<String> incomingQueue) {
+  public UdpReceiver(DatagramSocket socket, TransferQueue<Command> incomingQueue) {
     if (socket == null || incomingQueue == null) {
       throw new NullPointerException();
     }
@@ -38,14 +51,17 @@ class UdpReceiver implements Service<Void> {
   /** Begin listening for incoming packets. */
   @Override
   public Void call() {
+    final byte[] buffer = new byte[MAX_PACKET_SIZE];
+    final DatagramPacket packet = new DatagramPacket(buffer,buffer.length);
     while (state.get()) {
-      byte[] buffer = new byte[MAX_PACKET_SIZE];
-      DatagramPacket packet = new DatagramPacket(buffer,buffer.length);
+      packet.setData(buffer);
       try {
         socket.receive(packet);
-        if (!incomingQueue.offer((new String(packet.getData())).trim())) {
-          // This should never happen.
-          throw new AssertionError();
+        if (FrameDecoder.isFrame(buffer,packet.getOffset(),packet.getLength())) {
+          decoder.decode(buffer,packet.getOffset(),packet.getLength(),commands);
+        } else {
+          director.makeCommand(new String(buffer,packet.getOffset(),packet.getLength()).trim());
+          commands.add(director.getCommand());
         }
       } catch (Exception exception) {
         // Do not stop the receiver in case one packet fails.
@@ -53,6 +69,13 @@ class UdpReceiver implements Service<Void> {
           LOGGER.log(SEVERE,exception.toString(),exception);
         }
       }
+      for (Command command : commands) {
+        if (!incomingQueue.offer(command)) {
+          // This should never happen.
+          throw new AssertionError();
+        }
+      }
+      commands.clear();
     }
     return null;
   }
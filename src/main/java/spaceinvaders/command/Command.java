@@ -1,16 +1,17 @@
 package spaceinvaders.command;
 
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
 import spaceinvaders.Config;
 
 /**
  * Command to be executed on the client or the server side.
  *
- * <p>Commands are sent over the network, and are serialized using the json format.
+ * <p>Commands are sent over the network, and are serialized using the json format. Every kind of
+ * command has a {@link CommandAdapter}, which reads and writes its fields.
  */
 public abstract class Command {
-  private static final transient Gson GSON = new Gson();
-
   private final transient ProtocolEnum protocol;
   private final String name;
 
@@ -32,7 +33,16 @@ public abstract class Command {
 
   /** Get the JSON representation of this command. */
   public String toJson() {
-    return GSON.toJson(this);
+    final StringWriter json = new StringWriter();
+    final JsonWriter writer = new JsonWriter(json);
+    writer.setSerializeNulls(false);
+    try {
+      getAdapter().writeCommand(writer,this);
+    } catch (IOException ioException) {
+      // This should never happen.
+      throw new AssertionError();
+    }
+    return json.toString();
   }
 
   public String getName() {
@@ -43,6 +53,9 @@ public abstract class Command {
     return protocol;
   }
 
+  /** Get the adapter which reads and writes this kind of command. */
+  public abstract CommandAdapter<?> getAdapter();
+
   /** Execute the command. */
   public abstract void execute();
 
@@ -0,0 +1,131 @@
+package spaceinvaders.command;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Reads and writes the JSON form of one kind of {@link Command}, field by field, without
+ * reflection.
+ *
+ * <p>The name of the command is always written first, so that a {@link CommandBuilder} knows which
+ * adapter to use before reading any other field.
+ *
+ * @param <T> the kind of command.
+ */
+public abstract class CommandAdapter<T extends Command> extends TypeAdapter<T> {
+  /** Create an empty command, whose fields are going to be read. */
+  public abstract T create();
+
+  /**
+   * Read the value of a field into the {@code command}.
+   *
+   * <p>Commands without fields do not have to override this. Unknown fields are skipped.
+   *
+   * @throws IOException if the JSON cannot be read.
+   */
+  protected void readField(T command, String field, JsonReader in) throws IOException {
+    in.skipValue();
+  }
+
+  /**
+   * Write all fields of the {@code command}, except its name.
+   *
+   * <p>Commands without fields do not have to override this.
+   *
+   * @throws IOException if the JSON cannot be written.
+   */
+  protected void writeFields(T command, JsonWriter out) throws IOException {}
+
+  @Override
+  public final void write(JsonWriter out, T command) throws IOException {
+    if (command == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("name").value(command.getName());
+    writeFields(command,out);
+    out.endObject();
+  }
+
+  @Override
+  public final T read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    in.beginObject();
+    final T command = readFields(in);
+    in.endObject();
+    return command;
+  }
+
+  /**
+   * Read the remaining fields of an object, up to its end.
+   *
+   * @throws IOException if the JSON cannot be read.
+   */
+  public final T readFields(JsonReader in) throws IOException {
+    final T command = create();
+    while (in.hasNext()) {
+      final String field = in.nextName();
+      if (field.equals("name")) {
+        in.skipValue();
+      } else {
+        readField(command,field,in);
+      }
+    }
+    return command;
+  }
+
+  /** Write a command, which must be of the kind handled by this adapter. */
+  @SuppressWarnings("unchecked")
+  final void writeCommand(JsonWriter out, Command command) throws IOException {
+    write(out,(T) command);
+  }
+
+  protected static Integer readInteger(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    return in.nextInt();
+  }
+
+  protected static String readString(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    return in.nextString();
+  }
+
+  protected static Boolean readBoolean(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    return in.nextBoolean();
+  }
+
+  /** Read an enum constant by name. Unknown names are read as {@code null}. */
+  protected static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type)
+      throws IOException {
+    final String name = readString(in);
+    if (name == null) {
+      return null;
+    }
+    try {
+      return Enum.valueOf(type,name);
+    } catch (IllegalArgumentException argException) {
+      return null;
+    }
+  }
+
+  protected static void writeEnum(JsonWriter out, Enum<?> value) throws IOException {
+    out.value(value == null ? null : value.name());
+  }
+}
@@ -1,29 +1,40 @@
 package spaceinvaders.command;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import spaceinvaders.command.Command;
 import spaceinvaders.exceptions.CommandNotFoundException;
 
-/** Builds commands. */
+/**
+ * Builds commands.
+ *
+ * <p>The JSON is read in a single pass. Since commands are written with their name first, the
+ * {@link CommandAdapter} of a command is known before any of its fields is read. Fields which come
+ * before the name are kept aside until then.
+ */
 public abstract class CommandBuilder {
-  private static final Gson GSON = new Gson();
-  private static final JsonParser PARSER = new JsonParser();
-  private Map<String,Command> commandMap;
+  private static final TypeAdapter<JsonElement> ELEMENT_ADAPTER =
+      new Gson().getAdapter(JsonElement.class);
+  private final Map<String,CommandAdapter<?>> adapterMap;
   private Command command;
 
   /** Create a builder capable of building the specified commands. */
   public CommandBuilder(Command ... commands) {
-    commandMap = new HashMap<>();
+    final Map<String,CommandAdapter<?>> adapters = new HashMap<>();
     for (Command command : commands) {
-      commandMap.put(command.getName(),command);
+      adapters.put(command.getName(),command.getAdapter());
     }
-    commandMap = Collections.unmodifiableMap(commandMap);
+    adapterMap = Collections.unmodifiableMap(adapters);
   }
 
   /**
@@ -37,17 +48,52 @@ public abstract class CommandBuilder {
     if (json == null) {
       throw new NullPointerException();
     }
-    JsonObject jsonObj = PARSER.parse(json).getAsJsonObject();
-    String key = jsonObj.get("name").getAsString();
-    Command value = commandMap.get(key);
-    if (value == null) {
-      throw new CommandNotFoundException();
+    final JsonReader reader = new JsonReader(new StringReader(json));
+    reader.setLenient(true);
+    try {
+      final Command result = readCommand(reader);
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonSyntaxException("JSON document was not fully consumed.");
+      }
+      command = result;
+    } catch (IOException | IllegalStateException | NumberFormatException exception) {
+      throw new JsonSyntaxException(exception);
     }
-    command = GSON.fromJson(json,value.getClass());
   }
 
   /** Get the last command built. */
   public Command getCommand() {
     return command;
   }
+
+  private Command readCommand(JsonReader reader) throws IOException, CommandNotFoundException {
+    reader.beginObject();
+    JsonObject fields = null;
+    while (reader.hasNext()) {
+      final String field = reader.nextName();
+      if (!field.equals("name")) {
+        if (fields == null) {
+          fields = new JsonObject();
+        }
+        fields.add(field,ELEMENT_ADAPTER.read(reader));
+        continue;
+      }
+      final CommandAdapter<?> adapter = adapterMap.get(reader.nextString());
+      if (adapter == null) {
+        throw new CommandNotFoundException();
+      }
+      if (fields == null) {
+        final Command result = adapter.readFields(reader);
+        reader.endObject();
+        return result;
+      }
+      while (reader.hasNext()) {
+        fields.add(reader.nextName(),ELEMENT_ADAPTER.read(reader));
+      }
+      reader.endObject();
+      return adapter.fromJsonTree(fields);
+    }
+    // There is no name.
+    throw new CommandNotFoundException();
+  }
 }
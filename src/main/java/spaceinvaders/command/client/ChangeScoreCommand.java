@@ -2,12 +2,45 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.UDP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Change the score of a player. */
 public class ChangeScoreCommand extends Command {
+  private static final CommandAdapter<ChangeScoreCommand> ADAPTER =
+      new CommandAdapter<ChangeScoreCommand>() {
+        @Override
+        public ChangeScoreCommand create() {
+          return new ChangeScoreCommand();
+        }
+
+        @Override
+        protected void readField(ChangeScoreCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "playerId":
+              command.playerId = readInteger(in);
+              break;
+            case "change":
+              command.change = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(ChangeScoreCommand command, JsonWriter out) throws IOException {
+          out.name("playerId").value(command.playerId);
+          out.name("change").value(command.change);
+        }
+      };
+
   private transient Controller executor;
   private Integer playerId;
   private Integer change;
@@ -26,6 +59,19 @@ public class ChangeScoreCommand extends Command {
     this.change = change;
   }
 
+  int getPlayerId() {
+    return playerId;
+  }
+
+  int getChange() {
+    return change;
+  }
+
+  @Override
+  public CommandAdapter<ChangeScoreCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
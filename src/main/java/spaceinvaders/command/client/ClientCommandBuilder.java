@@ -13,6 +13,7 @@ public class ClientCommandBuilder extends CommandBuilder {
           new PlayersWonCommand(),
           new PlayersLostCommand(),
           new RefreshEntitiesCommand(),
+          new ServerFullCommand(),
           new SetPlayerIdCommand(),
           new SetPlayerNamesCommand(),
           new SpawnEntityCommand(),
@@ -5,15 +5,29 @@ import static spaceinvaders.command.ProtocolEnum.UDP;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Flush the screen. */
 public class FlushScreenCommand extends Command {
+  private static final CommandAdapter<FlushScreenCommand> ADAPTER =
+      new CommandAdapter<FlushScreenCommand>() {
+        @Override
+        public FlushScreenCommand create() {
+          return new FlushScreenCommand();
+        }
+      };
+
   private transient Controller executor;
 
   public FlushScreenCommand() {
     super(FlushScreenCommand.class.getName(),UDP);
   }
 
+  @Override
+  public CommandAdapter<FlushScreenCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
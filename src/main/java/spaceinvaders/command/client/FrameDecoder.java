@@ -0,0 +1,121 @@
+package spaceinvaders.command.client;
+
+import static spaceinvaders.command.client.FrameFormat.HEADER_SIZE;
+import static spaceinvaders.command.client.FrameFormat.MAGIC;
+import static spaceinvaders.command.client.FrameFormat.MAX_VARINT_SIZE;
+import static spaceinvaders.command.client.FrameFormat.TAG_FLUSH;
+import static spaceinvaders.command.client.FrameFormat.TAG_MOVE;
+import static spaceinvaders.command.client.FrameFormat.TAG_SCORE;
+import static spaceinvaders.command.client.FrameFormat.TAG_SPAWN;
+import static spaceinvaders.command.client.FrameFormat.TAG_TRANSLATE;
+import static spaceinvaders.command.client.FrameFormat.TAG_WIPE_OUT;
+import static spaceinvaders.command.client.FrameFormat.VERSION;
+import static spaceinvaders.command.client.FrameFormat.unzigzag;
+
+import java.util.List;
+import spaceinvaders.command.Command;
+import spaceinvaders.exceptions.CommandNotFoundException;
+import spaceinvaders.game.EntityEnum;
+
+/**
+ * Unpacks the binary datagrams produced by a {@link FrameEncoder}.
+ *
+ * <p>The implementation is not thread-safe.
+ */
+public class FrameDecoder {
+  private static final EntityEnum[] TYPES = EntityEnum.values();
+
+  private byte[] data;
+  private int position;
+  private int limit;
+
+  /**
+   * Check if a datagram holds a binary frame, rather than a JSON command.
+   *
+   * @throws NullPointerException if {@code data} is {@code null}.
+   */
+  public static boolean isFrame(byte[] data, int offset, int length) {
+    if (data == null) {
+      throw new NullPointerException();
+    }
+    return length >= HEADER_SIZE && data[offset] == MAGIC;
+  }
+
+  /**
+   * Decode all the commands of a datagram, in the order in which they were encoded.
+   *
+   * @param data the datagram.
+   * @param offset the offset of the datagram in {@code data}.
+   * @param length the length of the datagram.
+   * @param commands the decoded commands are added here.
+   *
+   * @throws CommandNotFoundException if a record has an unknown tag.
+   * @throws IllegalArgumentException if the datagram is not a valid frame. Commands decoded before
+   *     the error was found are kept in {@code commands}.
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public void decode(byte[] data, int offset, int length, List<Command> commands)
+      throws CommandNotFoundException {
+    if (data == null || commands == null) {
+      throw new NullPointerException();
+    }
+    if (!isFrame(data,offset,length) || data[offset + 1] != VERSION) {
+      throw new IllegalArgumentException();
+    }
+    this.data = data;
+    position = offset + HEADER_SIZE;
+    limit = offset + length;
+    try {
+      while (position < limit) {
+        commands.add(readRecord());
+      }
+    } finally {
+      this.data = null;
+    }
+  }
+
+  private Command readRecord() throws CommandNotFoundException {
+    final byte tag = data[position++];
+    switch (tag) {
+      case TAG_MOVE:
+        return new MoveEntityCommand(readVarint(),unzigzag(readVarint()),unzigzag(readVarint()));
+      case TAG_TRANSLATE:
+        return new TranslateGroupCommand(readType(),unzigzag(readVarint()),
+            unzigzag(readVarint()));
+      case TAG_SPAWN:
+        return new SpawnEntityCommand(readVarint(),readType(),unzigzag(readVarint()),
+            unzigzag(readVarint()));
+      case TAG_WIPE_OUT:
+        return new WipeOutEntityCommand(readVarint());
+      case TAG_SCORE:
+        return new ChangeScoreCommand(readVarint(),unzigzag(readVarint()));
+      case TAG_FLUSH:
+        return new FlushScreenCommand();
+      default:
+        throw new CommandNotFoundException();
+    }
+  }
+
+  private EntityEnum readType() {
+    final int ordinal = readVarint();
+    if (ordinal < 0 || ordinal >= TYPES.length) {
+      throw new IllegalArgumentException();
+    }
+    return TYPES[ordinal];
+  }
+
+  private int readVarint() {
+    int value = 0;
+    for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+      if (position >= limit) {
+        throw new IllegalArgumentException();
+      }
+      final byte current = data[position++];
+      value |= (current & 0x7F) << shift;
+      if (current >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException();
+  }
+}
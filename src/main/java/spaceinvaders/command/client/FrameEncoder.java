@@ -0,0 +1,151 @@
+package spaceinvaders.command.client;
+
+import static spaceinvaders.command.client.FrameFormat.HEADER_SIZE;
+import static spaceinvaders.command.client.FrameFormat.MAGIC;
+import static spaceinvaders.command.client.FrameFormat.MAX_RECORD_SIZE;
+import static spaceinvaders.command.client.FrameFormat.TAG_FLUSH;
+import static spaceinvaders.command.client.FrameFormat.TAG_MOVE;
+import static spaceinvaders.command.client.FrameFormat.TAG_SCORE;
+import static spaceinvaders.command.client.FrameFormat.TAG_SPAWN;
+import static spaceinvaders.command.client.FrameFormat.TAG_TRANSLATE;
+import static spaceinvaders.command.client.FrameFormat.TAG_WIPE_OUT;
+import static spaceinvaders.command.client.FrameFormat.VERSION;
+import static spaceinvaders.command.client.FrameFormat.zigzag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import spaceinvaders.command.Command;
+
+/**
+ * Packs the state changes of a frame into binary datagrams.
+ *
+ * <p>Commands are appended one after another, and a new datagram is started only when the current
+ * one is full. Only the commands describing state changes have a binary form, see
+ * {@link #add(Command) add}.
+ *
+ * <p>The implementation is not thread-safe.
+ *
+ * @see FrameDecoder
+ */
+public class FrameEncoder {
+  /** Fits in a datagram on any usual network, without fragmentation. */
+  public static final int DEFAULT_DATAGRAM_SIZE = 1200;
+
+  private final byte[] buffer;
+  private final List<byte[]> datagrams = new ArrayList<>();
+  private int position = 0;
+
+  /** Construct an encoder producing datagrams of at most {@code DEFAULT_DATAGRAM_SIZE} bytes. */
+  public FrameEncoder() {
+    this(DEFAULT_DATAGRAM_SIZE);
+  }
+
+  /**
+   * @param maxDatagramSize the maximum size of a datagram, in bytes.
+   *
+   * @throws IllegalArgumentException if {@code maxDatagramSize} cannot hold a single record.
+   */
+  public FrameEncoder(int maxDatagramSize) {
+    if (maxDatagramSize < HEADER_SIZE + MAX_RECORD_SIZE) {
+      throw new IllegalArgumentException();
+    }
+    buffer = new byte[maxDatagramSize];
+  }
+
+  /**
+   * Append a command to the frame.
+   *
+   * <p>Supported commands are {@link MoveEntityCommand}, {@link SpawnEntityCommand},
+   * {@link WipeOutEntityCommand}, {@link TranslateGroupCommand}, {@link ChangeScoreCommand} and
+   * {@link FlushScreenCommand}.
+   *
+   * @return true if the command was appended, false if it has no binary form.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public boolean add(Command command) {
+    if (command == null) {
+      throw new NullPointerException();
+    }
+    if (command instanceof MoveEntityCommand) {
+      MoveEntityCommand move = (MoveEntityCommand) command;
+      beginRecord(TAG_MOVE);
+      writeVarint(move.getEntityId());
+      writeVarint(zigzag(move.getNewX()));
+      writeVarint(zigzag(move.getNewY()));
+    } else if (command instanceof TranslateGroupCommand) {
+      TranslateGroupCommand translate = (TranslateGroupCommand) command;
+      beginRecord(TAG_TRANSLATE);
+      writeVarint(translate.getType().ordinal());
+      writeVarint(zigzag(translate.getOffsetX()));
+      writeVarint(zigzag(translate.getOffsetY()));
+    } else if (command instanceof SpawnEntityCommand) {
+      SpawnEntityCommand spawn = (SpawnEntityCommand) command;
+      beginRecord(TAG_SPAWN);
+      writeVarint(spawn.getId());
+      writeVarint(spawn.getType().ordinal());
+      writeVarint(zigzag(spawn.getPosX()));
+      writeVarint(zigzag(spawn.getPosY()));
+    } else if (command instanceof WipeOutEntityCommand) {
+      beginRecord(TAG_WIPE_OUT);
+      writeVarint(((WipeOutEntityCommand) command).getEntityId());
+    } else if (command instanceof ChangeScoreCommand) {
+      ChangeScoreCommand score = (ChangeScoreCommand) command;
+      beginRecord(TAG_SCORE);
+      writeVarint(score.getPlayerId());
+      writeVarint(zigzag(score.getChange()));
+    } else if (command instanceof FlushScreenCommand) {
+      beginRecord(TAG_FLUSH);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Close the frame and move all datagrams into {@code out}.
+   *
+   * <p>The encoder is ready for the next frame afterwards.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public void drainTo(Collection<? super byte[]> out) {
+    if (out == null) {
+      throw new NullPointerException();
+    }
+    if (position > HEADER_SIZE) {
+      closeDatagram();
+    }
+    position = 0;
+    out.addAll(datagrams);
+    datagrams.clear();
+  }
+
+  /** Start a record, opening a new datagram if the current one might not fit it. */
+  private void beginRecord(byte tag) {
+    if (position != 0 && position + MAX_RECORD_SIZE > buffer.length) {
+      closeDatagram();
+    }
+    if (position == 0) {
+      buffer[position++] = MAGIC;
+      buffer[position++] = VERSION;
+    }
+    buffer[position++] = tag;
+  }
+
+  private void closeDatagram() {
+    datagrams.add(Arrays.copyOf(buffer,position));
+    position = 0;
+  }
+
+  /** Write the bits of {@code value} as an unsigned varint. */
+  private void writeVarint(int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[position++] = (byte) value;
+  }
+}
@@ -0,0 +1,36 @@
+package spaceinvaders.command.client;
+
+/**
+ * Layout of the binary frames, shared by {@link FrameEncoder} and {@link FrameDecoder}.
+ *
+ * <p>A frame is one datagram. It starts with a magic byte and a version byte, followed by records.
+ * Each record is a tag byte and the fields of one command. Ids and entity types are written as
+ * unsigned varints, coordinates and offsets as zigzag varints, so small values take one byte.
+ *
+ * <p>A JSON datagram always starts with '{', so the magic byte tells the two formats apart.
+ */
+final class FrameFormat {
+  static final byte MAGIC = (byte) 0xB1;
+  static final byte VERSION = 1;
+  static final int HEADER_SIZE = 2;
+  static final int MAX_VARINT_SIZE = 5;
+  /** The largest record is a spawn: a tag and four varints. */
+  static final int MAX_RECORD_SIZE = 1 + 4 * MAX_VARINT_SIZE;
+
+  static final byte TAG_MOVE = 1;
+  static final byte TAG_SPAWN = 2;
+  static final byte TAG_WIPE_OUT = 3;
+  static final byte TAG_TRANSLATE = 4;
+  static final byte TAG_SCORE = 5;
+  static final byte TAG_FLUSH = 6;
+
+  private FrameFormat() {}
+
+  static int zigzag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  static int unzigzag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
@@ -2,13 +2,42 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.client.ClientConfig;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** The player dies. */
 public class GameOverCommand extends Command {
+  private static final CommandAdapter<GameOverCommand> ADAPTER =
+      new CommandAdapter<GameOverCommand>() {
+        @Override
+        public GameOverCommand create() {
+          return new GameOverCommand();
+        }
+
+        @Override
+        protected void readField(GameOverCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "playerId":
+              command.playerId = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(GameOverCommand command, JsonWriter out) throws IOException {
+          out.name("playerId").value(command.playerId);
+        }
+      };
+
   private transient Controller executor;
   private Integer playerId;
 
@@ -21,6 +50,11 @@ public class GameOverCommand extends Command {
     this.playerId = playerId;
   }
 
+  @Override
+  public CommandAdapter<GameOverCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     if (ClientConfig.getInstance().getId() == playerId) {
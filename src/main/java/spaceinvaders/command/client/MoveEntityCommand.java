@@ -2,12 +2,49 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.UDP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Move an entity to a new position. */
 public class MoveEntityCommand extends Command {
+  private static final CommandAdapter<MoveEntityCommand> ADAPTER =
+      new CommandAdapter<MoveEntityCommand>() {
+        @Override
+        public MoveEntityCommand create() {
+          return new MoveEntityCommand();
+        }
+
+        @Override
+        protected void readField(MoveEntityCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "entityId":
+              command.entityId = readInteger(in);
+              break;
+            case "newX":
+              command.newX = readInteger(in);
+              break;
+            case "newY":
+              command.newY = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(MoveEntityCommand command, JsonWriter out) throws IOException {
+          out.name("entityId").value(command.entityId);
+          out.name("newX").value(command.newX);
+          out.name("newY").value(command.newY);
+        }
+      };
+
   private transient Controller executor;
   private Integer entityId;
   private Integer newX;
@@ -29,6 +66,23 @@ public class MoveEntityCommand extends Command {
     this.newY = newY;
   }
 
+  int getEntityId() {
+    return entityId;
+  }
+
+  int getNewX() {
+    return newX;
+  }
+
+  int getNewY() {
+    return newY;
+  }
+
+  @Override
+  public CommandAdapter<MoveEntityCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
@@ -5,15 +5,29 @@ import static spaceinvaders.command.ProtocolEnum.TCP;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Humans lost the game. */
 public class PlayersLostCommand extends Command {
+  private static final CommandAdapter<PlayersLostCommand> ADAPTER =
+      new CommandAdapter<PlayersLostCommand>() {
+        @Override
+        public PlayersLostCommand create() {
+          return new PlayersLostCommand();
+        }
+      };
+
   private transient Controller executor;
 
   public PlayersLostCommand() {
     super(PlayersLostCommand.class.getName(),TCP);
   }
 
+  @Override
+  public CommandAdapter<PlayersLostCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
@@ -5,15 +5,29 @@ import static spaceinvaders.command.ProtocolEnum.TCP;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Humans won the game. */
 public class PlayersWonCommand extends Command {
+  private static final CommandAdapter<PlayersWonCommand> ADAPTER =
+      new CommandAdapter<PlayersWonCommand>() {
+        @Override
+        public PlayersWonCommand create() {
+          return new PlayersWonCommand();
+        }
+      };
+
   private transient Controller executor;
 
   public PlayersWonCommand() {
     super(PlayersWonCommand.class.getName(),TCP);
   }
 
+  @Override
+  public CommandAdapter<PlayersWonCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
@@ -4,15 +4,29 @@ import static spaceinvaders.command.ProtocolEnum.TCP;
 
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Quit game. */
 public class QuitGameCommand extends Command {
+  private static final CommandAdapter<QuitGameCommand> ADAPTER =
+      new CommandAdapter<QuitGameCommand>() {
+        @Override
+        public QuitGameCommand create() {
+          return new QuitGameCommand();
+        }
+      };
+
   private transient Controller executor;
 
   public QuitGameCommand() {
     super(QuitGameCommand.class.getName(),TCP);
   }
 
+  @Override
+  public CommandAdapter<QuitGameCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     executor.getModel().exitGame();
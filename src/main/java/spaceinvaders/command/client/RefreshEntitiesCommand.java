@@ -2,15 +2,122 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.game.Entity;
+import spaceinvaders.game.EntityEnum;
 
 /** Refresh entities that appear on the screen. */
 public class RefreshEntitiesCommand extends Command {
+  private static final CommandAdapter<RefreshEntitiesCommand> ADAPTER =
+      new CommandAdapter<RefreshEntitiesCommand>() {
+        @Override
+        public RefreshEntitiesCommand create() {
+          return new RefreshEntitiesCommand();
+        }
+
+        @Override
+        protected void readField(RefreshEntitiesCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "entities":
+              command.entities = readEntities(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(RefreshEntitiesCommand command, JsonWriter out)
+            throws IOException {
+          if (command.entities != null) {
+            out.name("entities");
+            writeEntities(command.entities,out);
+          }
+        }
+
+        private List<Entity> readEntities(JsonReader in) throws IOException {
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+          }
+          final List<Entity> entities = new ArrayList<>();
+          in.beginArray();
+          while (in.hasNext()) {
+            entities.add(readEntity(in));
+          }
+          in.endArray();
+          return entities;
+        }
+
+        private Entity readEntity(JsonReader in) throws IOException {
+          EntityEnum type = null;
+          int id = 0;
+          int posX = 0;
+          int posY = 0;
+          in.beginObject();
+          while (in.hasNext()) {
+            switch (in.nextName()) {
+              case "type":
+                type = readEnum(in,EntityEnum.class);
+                break;
+              case "id":
+                id = in.nextInt();
+                break;
+              case "pos":
+                in.beginObject();
+                while (in.hasNext()) {
+                  switch (in.nextName()) {
+                    case "first":
+                      posX = in.nextInt();
+                      break;
+                    case "second":
+                      posY = in.nextInt();
+                      break;
+                    default:
+                      in.skipValue();
+                  }
+                }
+                in.endObject();
+                break;
+              default:
+                in.skipValue();
+            }
+          }
+          in.endObject();
+          if (type == null) {
+            throw new JsonSyntaxException("Entity without a type");
+          }
+          return new Entity(type,id,posX,posY);
+        }
+
+        private void writeEntities(List<Entity> entities, JsonWriter out) throws IOException {
+          out.beginArray();
+          for (Entity entity : entities) {
+            out.beginObject();
+            out.name("type");
+            writeEnum(out,entity.getType());
+            out.name("id").value(entity.getId());
+            out.name("pos").beginObject();
+            out.name("first").value(entity.getX());
+            out.name("second").value(entity.getY());
+            out.endObject();
+            out.endObject();
+          }
+          out.endArray();
+        }
+      };
+
   private transient Controller executor;
   private List<Entity> entities;
 
@@ -31,6 +138,11 @@ public class RefreshEntitiesCommand extends Command {
     this.entities = entities;
   }
 
+  @Override
+  public CommandAdapter<RefreshEntitiesCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
@@ -0,0 +1,50 @@
+package spaceinvaders.command.client;
+
+import static spaceinvaders.command.ProtocolEnum.TCP;
+
+import spaceinvaders.client.mvc.Controller;
+import spaceinvaders.client.mvc.View;
+import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
+import spaceinvaders.exceptions.ServerFullException;
+
+/** The server cannot take in any more players, so the connection is refused. */
+public class ServerFullCommand extends Command {
+  private static final CommandAdapter<ServerFullCommand> ADAPTER =
+      new CommandAdapter<ServerFullCommand>() {
+        @Override
+        public ServerFullCommand create() {
+          return new ServerFullCommand();
+        }
+      };
+
+  private transient Controller executor;
+
+  public ServerFullCommand() {
+    super(ServerFullCommand.class.getName(),TCP);
+  }
+
+  @Override
+  public CommandAdapter<ServerFullCommand> getAdapter() {
+    return ADAPTER;
+  }
+
+  @Override
+  public void execute() {
+    executor.getModel().exitGame();
+    for (View view : executor.getViews()) {
+      view.showMenu();
+      view.displayError(new ServerFullException());
+    }
+  }
+
+  @Override
+  public void setExecutor(Object executor) {
+    if (executor instanceof Controller) {
+      this.executor = (Controller) executor;
+    } else {
+      // This should never happen.
+      throw new AssertionError();
+    }
+  }
+}
@@ -2,15 +2,44 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.client.ClientConfig;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.Model;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.command.server.ConfigurePlayerCommand;
 
 /** Set the id of the player, which is generated by the server. */
 public class SetPlayerIdCommand extends Command {
+  private static final CommandAdapter<SetPlayerIdCommand> ADAPTER =
+      new CommandAdapter<SetPlayerIdCommand>() {
+        @Override
+        public SetPlayerIdCommand create() {
+          return new SetPlayerIdCommand();
+        }
+
+        @Override
+        protected void readField(SetPlayerIdCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "id":
+              command.id = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(SetPlayerIdCommand command, JsonWriter out) throws IOException {
+          out.name("id").value(command.id);
+        }
+      };
+
   private transient Controller executor;
   private Integer id;
 
@@ -26,13 +55,18 @@ public class SetPlayerIdCommand extends Command {
     this.id = id;
   }
 
+  @Override
+  public CommandAdapter<SetPlayerIdCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     ClientConfig config = ClientConfig.getInstance();
     config.setId(id);
     Model model = executor.getModel();
     model.doCommand(new ConfigurePlayerCommand(config.getUserName(),config.getTeamSize(),
-          config.getUdpIncomingPort()));
+          config.getUdpIncomingPort(),config.isBinaryFrames()));
     for (View view : executor.getViews()) {
       view.showGame();
     }
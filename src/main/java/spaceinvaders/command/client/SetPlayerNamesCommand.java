@@ -2,14 +2,90 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.utility.Couple;
 
 /** Associate players ids with names. */
 public class SetPlayerNamesCommand extends Command {
+  private static final CommandAdapter<SetPlayerNamesCommand> ADAPTER =
+      new CommandAdapter<SetPlayerNamesCommand>() {
+        @Override
+        public SetPlayerNamesCommand create() {
+          return new SetPlayerNamesCommand();
+        }
+
+        @Override
+        protected void readField(SetPlayerNamesCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "idToName":
+              command.idToName = readNames(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(SetPlayerNamesCommand command, JsonWriter out)
+            throws IOException {
+          if (command.idToName != null) {
+            out.name("idToName");
+            writeNames(command.idToName,out);
+          }
+        }
+
+        private List<Couple<Integer,String>> readNames(JsonReader in) throws IOException {
+          if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+          }
+          final List<Couple<Integer,String>> idToName = new ArrayList<>();
+          in.beginArray();
+          while (in.hasNext()) {
+            final Couple<Integer,String> couple = new Couple<>(null,null);
+            in.beginObject();
+            while (in.hasNext()) {
+              switch (in.nextName()) {
+                case "first":
+                  couple.setFirst(readInteger(in));
+                  break;
+                case "second":
+                  couple.setSecond(readString(in));
+                  break;
+                default:
+                  in.skipValue();
+              }
+            }
+            in.endObject();
+            idToName.add(couple);
+          }
+          in.endArray();
+          return idToName;
+        }
+
+        private void writeNames(List<Couple<Integer,String>> idToName, JsonWriter out)
+            throws IOException {
+          out.beginArray();
+          for (Couple<Integer,String> couple : idToName) {
+            out.beginObject();
+            out.name("first").value(couple.getFirst());
+            out.name("second").value(couple.getSecond());
+            out.endObject();
+          }
+          out.endArray();
+        }
+      };
+
   private transient Controller executor;
   private List<Couple<Integer,String>> idToName;
 
@@ -30,6 +106,11 @@ public class SetPlayerNamesCommand extends Command {
     this.idToName = idToName;
   }
 
+  @Override
+  public CommandAdapter<SetPlayerNamesCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
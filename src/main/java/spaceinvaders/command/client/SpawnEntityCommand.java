@@ -2,13 +2,55 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.game.EntityEnum;
 
 /** Create a new entity. */
 public class SpawnEntityCommand extends Command {
+  private static final CommandAdapter<SpawnEntityCommand> ADAPTER =
+      new CommandAdapter<SpawnEntityCommand>() {
+        @Override
+        public SpawnEntityCommand create() {
+          return new SpawnEntityCommand();
+        }
+
+        @Override
+        protected void readField(SpawnEntityCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "id":
+              command.id = readInteger(in);
+              break;
+            case "type":
+              command.type = readEnum(in,EntityEnum.class);
+              break;
+            case "posX":
+              command.posX = readInteger(in);
+              break;
+            case "posY":
+              command.posY = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(SpawnEntityCommand command, JsonWriter out) throws IOException {
+          out.name("id").value(command.id);
+          out.name("type");
+          writeEnum(out,command.type);
+          out.name("posX").value(command.posX);
+          out.name("posY").value(command.posY);
+        }
+      };
+
   private transient Controller executor;
   private Integer id;
   private EntityEnum type;
@@ -35,6 +77,27 @@ public class SpawnEntityCommand extends Command {
     this.posY = posY;
   }
 
+  int getId() {
+    return id;
+  }
+
+  EntityEnum getType() {
+    return type;
+  }
+
+  int getPosX() {
+    return posX;
+  }
+
+  int getPosY() {
+    return posY;
+  }
+
+  @Override
+  public CommandAdapter<SpawnEntityCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
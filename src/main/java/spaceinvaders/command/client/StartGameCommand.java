@@ -5,15 +5,29 @@ import static spaceinvaders.command.ProtocolEnum.TCP;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Start the game. */
 public class StartGameCommand extends Command {
+  private static final CommandAdapter<StartGameCommand> ADAPTER =
+      new CommandAdapter<StartGameCommand>() {
+        @Override
+        public StartGameCommand create() {
+          return new StartGameCommand();
+        }
+      };
+
   private transient Controller executor;
 
   public StartGameCommand() {
     super(StartGameCommand.class.getName(),TCP);
   }
 
+  @Override
+  public CommandAdapter<StartGameCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
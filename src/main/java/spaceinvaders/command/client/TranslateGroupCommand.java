@@ -2,13 +2,52 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.UDP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.game.EntityEnum;
 
 /** Move a all entities belonging to a groupe, relative to their current position. */
 public class TranslateGroupCommand extends Command {
+  private static final CommandAdapter<TranslateGroupCommand> ADAPTER =
+      new CommandAdapter<TranslateGroupCommand>() {
+        @Override
+        public TranslateGroupCommand create() {
+          return new TranslateGroupCommand();
+        }
+
+        @Override
+        protected void readField(TranslateGroupCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "type":
+              command.type = readEnum(in,EntityEnum.class);
+              break;
+            case "offsetX":
+              command.offsetX = readInteger(in);
+              break;
+            case "offsetY":
+              command.offsetY = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(TranslateGroupCommand command, JsonWriter out)
+            throws IOException {
+          out.name("type");
+          writeEnum(out,command.type);
+          out.name("offsetX").value(command.offsetX);
+          out.name("offsetY").value(command.offsetY);
+        }
+      };
+
   private transient Controller executor;
   private EntityEnum type;
   private Integer offsetX;
@@ -35,6 +74,23 @@ public class TranslateGroupCommand extends Command {
     this.offsetY = offsetY;
   }
 
+  EntityEnum getType() {
+    return type;
+  }
+
+  int getOffsetX() {
+    return offsetX;
+  }
+
+  int getOffsetY() {
+    return offsetY;
+  }
+
+  @Override
+  public CommandAdapter<TranslateGroupCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
@@ -2,12 +2,42 @@ package spaceinvaders.command.client;
 
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.client.mvc.Controller;
 import spaceinvaders.client.mvc.View;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 
 /** Wipe out a destroyed entity from the screen. */
 public class WipeOutEntityCommand extends Command {
+  private static final CommandAdapter<WipeOutEntityCommand> ADAPTER =
+      new CommandAdapter<WipeOutEntityCommand>() {
+        @Override
+        public WipeOutEntityCommand create() {
+          return new WipeOutEntityCommand();
+        }
+
+        @Override
+        protected void readField(WipeOutEntityCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "entityId":
+              command.entityId = in.nextInt();
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(WipeOutEntityCommand command, JsonWriter out)
+            throws IOException {
+          out.name("entityId").value(command.entityId);
+        }
+      };
+
   private transient Controller executor;
   private int entityId;
 
@@ -23,6 +53,15 @@ public class WipeOutEntityCommand extends Command {
     this.entityId = entityId;
   }
 
+  int getEntityId() {
+    return entityId;
+  }
+
+  @Override
+  public CommandAdapter<WipeOutEntityCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     for (View view : executor.getViews()) {
@@ -2,15 +2,63 @@ package spaceinvaders.command.server;
 
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.server.player.Player;
 
-/** Set the name, team size and the address where to send UDP packets. */
+/**
+ * Set the name, team size and the address where to send UDP packets.
+ *
+ * <p>The client also tells whether it understands binary frames. Older clients do not send this
+ * field, and they keep receiving one JSON command per UDP packet.
+ */
 public class ConfigurePlayerCommand extends Command {
+  private static final CommandAdapter<ConfigurePlayerCommand> ADAPTER =
+      new CommandAdapter<ConfigurePlayerCommand>() {
+        @Override
+        public ConfigurePlayerCommand create() {
+          return new ConfigurePlayerCommand();
+        }
+
+        @Override
+        protected void readField(ConfigurePlayerCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "playerName":
+              command.playerName = readString(in);
+              break;
+            case "teamSize":
+              command.teamSize = readInteger(in);
+              break;
+            case "receivingUdpPort":
+              command.receivingUdpPort = readInteger(in);
+              break;
+            case "binaryFrames":
+              command.binaryFrames = readBoolean(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(ConfigurePlayerCommand command, JsonWriter out)
+            throws IOException {
+          out.name("playerName").value(command.playerName);
+          out.name("teamSize").value(command.teamSize);
+          out.name("receivingUdpPort").value(command.receivingUdpPort);
+          out.name("binaryFrames").value(command.binaryFrames);
+        }
+      };
+
   private transient Player executor;
   private String playerName;
   private Integer teamSize;
   private Integer receivingUdpPort;
+  private Boolean binaryFrames;
 
   ConfigurePlayerCommand() {
     super(ConfigurePlayerCommand.class.getName(),TCP);
@@ -24,6 +72,19 @@ public class ConfigurePlayerCommand extends Command {
    * @throws NullPointerException if an argument is {@code null}.
    */
   public ConfigurePlayerCommand(String playerName, int teamSize, int receivingUdpPort) {
+    this(playerName,teamSize,receivingUdpPort,false);
+  }
+
+  /**
+   * @param playerName the name which the player chooses to have.
+   * @param teamSize the size of the time which the player wants to join.
+   * @param receivingUdpPort the UDP port on which the player is going to listen.
+   * @param binaryFrames true if UDP packets should carry binary frames instead of JSON.
+   *
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public ConfigurePlayerCommand(String playerName, int teamSize, int receivingUdpPort,
+      boolean binaryFrames) {
     this();
     if (playerName == null) {
       throw new NullPointerException();
@@ -31,13 +92,19 @@ public class ConfigurePlayerCommand extends Command {
     this.playerName = playerName;
     this.teamSize = teamSize;
     this.receivingUdpPort = receivingUdpPort;
+    this.binaryFrames = binaryFrames;
+  }
+
+  @Override
+  public CommandAdapter<ConfigurePlayerCommand> getAdapter() {
+    return ADAPTER;
   }
 
   @Override
   public void execute() {
     executor.setName(playerName);
     executor.setTeamSize(teamSize);
-    executor.setUdpDestinationPort(receivingUdpPort);
+    executor.setUdpDestinationPort(receivingUdpPort,binaryFrames != null && binaryFrames);
   }
 
   @Override
@@ -2,11 +2,41 @@ package spaceinvaders.command.server;
 
 import static spaceinvaders.command.ProtocolEnum.UDP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.server.game.GameLoop;
 
 /** Move a player one step left. */
 public class MovePlayerLeftCommand extends Command {
+  private static final CommandAdapter<MovePlayerLeftCommand> ADAPTER =
+      new CommandAdapter<MovePlayerLeftCommand>() {
+        @Override
+        public MovePlayerLeftCommand create() {
+          return new MovePlayerLeftCommand();
+        }
+
+        @Override
+        protected void readField(MovePlayerLeftCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "id":
+              command.id = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(MovePlayerLeftCommand command, JsonWriter out)
+            throws IOException {
+          out.name("id").value(command.id);
+        }
+      };
+
   private transient GameLoop executor;
   private Integer id;
 
@@ -22,6 +52,11 @@ public class MovePlayerLeftCommand extends Command {
     this.id = id;
   }
 
+  @Override
+  public CommandAdapter<MovePlayerLeftCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     executor.movePlayerLeft(id);
@@ -2,11 +2,41 @@ package spaceinvaders.command.server;
 
 import static spaceinvaders.command.ProtocolEnum.UDP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.server.game.GameLoop;
 
 /** Move a player one step to the right. */
 public class MovePlayerRightCommand extends Command {
+  private static final CommandAdapter<MovePlayerRightCommand> ADAPTER =
+      new CommandAdapter<MovePlayerRightCommand>() {
+        @Override
+        public MovePlayerRightCommand create() {
+          return new MovePlayerRightCommand();
+        }
+
+        @Override
+        protected void readField(MovePlayerRightCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "id":
+              command.id = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(MovePlayerRightCommand command, JsonWriter out)
+            throws IOException {
+          out.name("id").value(command.id);
+        }
+      };
+
   private transient GameLoop executor;
   private Integer id;
 
@@ -22,6 +52,11 @@ public class MovePlayerRightCommand extends Command {
     this.id = id;
   }
 
+  @Override
+  public CommandAdapter<MovePlayerRightCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     executor.movePlayerRight(id);
@@ -2,11 +2,40 @@ package spaceinvaders.command.server;
 
 import static spaceinvaders.command.ProtocolEnum.UDP;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.CommandAdapter;
 import spaceinvaders.server.game.GameLoop;
 
 /** Player fires a bullet. */
 public class PlayerShootCommand extends Command {
+  private static final CommandAdapter<PlayerShootCommand> ADAPTER =
+      new CommandAdapter<PlayerShootCommand>() {
+        @Override
+        public PlayerShootCommand create() {
+          return new PlayerShootCommand();
+        }
+
+        @Override
+        protected void readField(PlayerShootCommand command, String field, JsonReader in)
+            throws IOException {
+          switch (field) {
+            case "id":
+              command.id = readInteger(in);
+              break;
+            default:
+              in.skipValue();
+          }
+        }
+
+        @Override
+        protected void writeFields(PlayerShootCommand command, JsonWriter out) throws IOException {
+          out.name("id").value(command.id);
+        }
+      };
+
   private transient GameLoop executor;
   private Integer id;
 
@@ -22,6 +51,11 @@ public class PlayerShootCommand extends Command {
     this.id = id;
   }
 
+  @Override
+  public CommandAdapter<PlayerShootCommand> getAdapter() {
+    return ADAPTER;
+  }
+
   @Override
   public void execute() {
     executor.playerShoot(id);
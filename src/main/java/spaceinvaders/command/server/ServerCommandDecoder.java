@@ -0,0 +1,185 @@
+package spaceinvaders.command.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import spaceinvaders.command.Command;
+
+/**
+ * Decodes the commands which players send during the game straight from the bytes of a datagram.
+ *
+ * <p>Only the JSON form of {@link MovePlayerLeftCommand}, {@link MovePlayerRightCommand} and
+ * {@link PlayerShootCommand} is recognized: a flat object with an integer {@code id} and a
+ * {@code name}, in any order and with any whitespace. Nothing but the command itself is allocated.
+ * Anything else is left to a {@link ServerCommandBuilder}.
+ *
+ * <p>The implementation is not thread-safe.
+ */
+public class ServerCommandDecoder {
+  private static final byte[] ID = "id".getBytes(UTF_8);
+  private static final byte[] NAME = "name".getBytes(UTF_8);
+  private static final byte[][] NAMES = {
+    MovePlayerLeftCommand.class.getName().getBytes(UTF_8),
+    MovePlayerRightCommand.class.getName().getBytes(UTF_8),
+    PlayerShootCommand.class.getName().getBytes(UTF_8)
+  };
+  private static final int MOVE_LEFT = 0;
+  private static final int MOVE_RIGHT = 1;
+  private static final int SHOOT = 2;
+
+  private ByteBuffer data;
+  private int position;
+  private int limit;
+
+  /**
+   * Decode a datagram.
+   *
+   * @param data the datagram, from its position to its limit. The position is not changed.
+   *
+   * @return the command, or {@code null} if the datagram does not hold one of the recognized
+   *     commands.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public Command decode(ByteBuffer data) {
+    if (data == null) {
+      throw new NullPointerException();
+    }
+    this.data = data;
+    position = data.position();
+    limit = data.limit();
+    try {
+      return readObject();
+    } finally {
+      this.data = null;
+    }
+  }
+
+  private Command readObject() {
+    skipWhitespace();
+    if (!consume('{')) {
+      return null;
+    }
+    boolean hasId = false;
+    int id = 0;
+    int kind = -1;
+    do {
+      skipWhitespace();
+      if (consumeString(ID)) {
+        if (hasId || !consumeColon()) {
+          return null;
+        }
+        final long value = readInt();
+        if (value == Long.MIN_VALUE) {
+          return null;
+        }
+        id = (int) value;
+        hasId = true;
+      } else if (consumeString(NAME)) {
+        if (kind != -1 || !consumeColon()) {
+          return null;
+        }
+        kind = readName();
+        if (kind == -1) {
+          return null;
+        }
+      } else {
+        return null;
+      }
+      skipWhitespace();
+    } while (consume(','));
+    if (!consume('}')) {
+      return null;
+    }
+    skipWhitespace();
+    if (position != limit || !hasId) {
+      return null;
+    }
+    switch (kind) {
+      case MOVE_LEFT:
+        return new MovePlayerLeftCommand(id);
+      case MOVE_RIGHT:
+        return new MovePlayerRightCommand(id);
+      case SHOOT:
+        return new PlayerShootCommand(id);
+      default:
+        return null;
+    }
+  }
+
+  /** Read the name of a recognized command, returning its index or -1. */
+  private int readName() {
+    skipWhitespace();
+    for (int index = 0; index < NAMES.length; ++index) {
+      if (consumeString(NAMES[index])) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /** Read an integer, returning {@link Long#MIN_VALUE} if there is none or it overflows. */
+  private long readInt() {
+    skipWhitespace();
+    final boolean negative = consume('-');
+    final int start = position;
+    long value = 0;
+    while (position < limit) {
+      final int digit = data.get(position) - '0';
+      if (digit < 0 || digit > 9) {
+        break;
+      }
+      value = 10 * value + digit;
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        return Long.MIN_VALUE;
+      }
+      ++position;
+    }
+    if (position == start) {
+      return Long.MIN_VALUE;
+    }
+    value = negative ? -value : value;
+    return value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+  }
+
+  /** Consume a quoted string if it matches {@code expected}, which must not need escaping. */
+  private boolean consumeString(byte[] expected) {
+    if (limit - position < expected.length + 2 || data.get(position) != '"') {
+      return false;
+    }
+    for (int index = 0; index < expected.length; ++index) {
+      if (data.get(position + 1 + index) != expected[index]) {
+        return false;
+      }
+    }
+    if (data.get(position + 1 + expected.length) != '"') {
+      return false;
+    }
+    position += expected.length + 2;
+    return true;
+  }
+
+  private boolean consumeColon() {
+    skipWhitespace();
+    return consume(':');
+  }
+
+  private boolean consume(char expected) {
+    if (position < limit && data.get(position) == expected) {
+      ++position;
+      return true;
+    }
+    return false;
+  }
+
+  /** Skip whitespace and control characters, like {@link String#trim()}. */
+  private void skipWhitespace() {
+    while (position < limit) {
+      final byte current = data.get(position);
+      if (current < 0 || current > ' ') {
+        break;
+      }
+      ++position;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package spaceinvaders.exceptions;
+
+/** Thrown when the server cannot take in any more players. */
+@SuppressWarnings("serial")
+public class ServerFullException extends Exception {
+  private static final String MESSAGE = "The server is full! Please try again later.";
+
+  public ServerFullException() {
+    super(MESSAGE);
+  }
+
+  public ServerFullException(Throwable cause) {
+    super(MESSAGE,cause);
+  }
+}
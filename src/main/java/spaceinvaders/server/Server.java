@@ -1,12 +1,8 @@
 package spaceinvaders.server;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import spaceinvaders.exceptions.IllegalPortNumberException;
 import spaceinvaders.exceptions.SocketOpeningException;
@@ -15,6 +11,7 @@ import spaceinvaders.server.network.ConnectionManager;
 import spaceinvaders.server.player.PlayerManager;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.ServiceSupervisor;
 
 /**
  * Server-side of the game.
@@ -34,6 +31,7 @@ public class Server implements Service<Void> {
   private final ExecutorService playerManagerExecutor;
   private final ExecutorService gameManagerExecutor;
   private final ServiceState state = new ServiceState();
+  private final ServiceSupervisor supervisor = new ServiceSupervisor();
 
   /**
    * Construct a server that will listen for connections on port {@code port}.
@@ -61,34 +59,26 @@ public class Server implements Service<Void> {
    */
   @Override
   public Void call() throws ExecutionException, InterruptedException {
-    List<Future<?>> future = new ArrayList<>();
-    future.add(connectionManagerExecutor.submit(connectionManager));
-    future.add(playerManagerExecutor.submit(playerManager));
-    future.add(gameManagerExecutor.submit(gameManager));
-    final long checkingRateMs = 1000;
-    while (state.get()) {
-      try {
-        for (Future<?> it : future) {
-          if (it.isDone()) {
-            state.set(false);
-            it.get();
-          }
-        }
-        Thread.sleep(checkingRateMs);
-      } catch (CancellationException | InterruptedException exception) {
-        if (state.get()) {
-          state.set(false);
-          throw new InterruptedException();
-        }
+    supervisor.start(connectionManager,connectionManagerExecutor);
+    supervisor.start(playerManager,playerManagerExecutor);
+    supervisor.start(gameManager,gameManagerExecutor);
+    try {
+      supervisor.await();
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        state.set(false);
+        throw new InterruptedException();
       }
+    } finally {
+      state.set(false);
     }
-    state.set(false);
     return null;
   }
 
   @Override
   public void shutdown() {
     state.set(false);
+    supervisor.stop();
     connectionManager.shutdown();
     playerManager.shutdown();
     gameManager.shutdown();
@@ -97,6 +87,11 @@ public class Server implements Service<Void> {
     gameManagerExecutor.shutdownNow();
   }
 
+  /** Get a human readable description of the state of the server. */
+  public String getStatus() {
+    return gameManager.getStatus() + connectionManager.getStatus();
+  }
+
   /**
    * @return true if the server is running, false otherwise.
    */
@@ -19,6 +19,9 @@ public class StandardController extends ServiceController {
       case "quit":
         server.shutdown();
         break;
+      case "status":
+        System.out.print(server.getStatus());
+        break;
       default:
         // Do nothing.
         break;
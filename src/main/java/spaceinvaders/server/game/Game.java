@@ -7,7 +7,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import spaceinvaders.command.Command;
 import spaceinvaders.command.client.FlushScreenCommand;
@@ -21,19 +21,26 @@ import spaceinvaders.game.GameConfig;
 import spaceinvaders.server.game.world.ClassicWorldBuilder;
 import spaceinvaders.server.game.world.World;
 import spaceinvaders.server.game.world.WorldDirector;
+import spaceinvaders.server.network.senderchain.EncodedFrame;
 import spaceinvaders.server.player.Player;
 import spaceinvaders.utility.Couple;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.TickScheduler;
 
 /**
  * The actual gameplay.
  *
- * <p>The game loop is being run here.
+ * <p>The game loop is being run here. A game either runs on a thread of its own, through
+ * {@link #call() call}, or it is stepped together with other games by a {@link GameShard}.
+ *
+ * <p>The commands of a frame are collected and encoded once, when the frame is flushed. All
+ * players are sent the same {@link EncodedFrame}.
  */
 class Game implements Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(Game.class.getName());
-  private static final int FRAMES_PER_SECOND = 40;
+  static final int FRAMES_PER_SECOND = 40;
+  static final int MAX_CATCH_UP_TICKS = FRAMES_PER_SECOND / 4;
   private static final boolean PREDICTABLE_GAME = GameConfig.getInstance().isPredictable();
 
   private final ServiceState state = new ServiceState();
@@ -41,17 +48,19 @@ class Game implements Service<Void> {
   private final World world;
   private final Random rng;
   private final GameLoop gameLoop;
+  private final List<Command> frameBuf = new ArrayList<>();
+  private volatile TickScheduler scheduler;
+  private long tickCount = 0;
 
   /**
    * Create a new game.
    *
    * @param team players joining this game.
-   * @param threadPool used to for game threads.
    *
-   * @throws NullPointerException if any of the arguments is {@code null}
+   * @throws NullPointerException if the argument is {@code null}
    */
-  public Game(List<Player> team, ExecutorService threadPool) {
-    if (team == null || threadPool == null) {
+  public Game(List<Player> team) {
+    if (team == null) {
       throw new NullPointerException();
     }
     this.team = team;
@@ -71,24 +80,62 @@ class Game implements Service<Void> {
       rng = new Random();
     }
 
-    gameLoop = new GameLoop(team,world,rng,threadPool);
+    gameLoop = new GameLoop(team,world,rng,FRAMES_PER_SECOND);
 
     state.set(true);
   }
 
   /**
-   * Start the game.
+   * Run the game on the calling thread, until it is over.
    *
    * <p>The game loop is executed in the following manner:<br>
    * - process the user input<br>
    * - update the game state (advance the game simulation)<br>
-   * - send the output
+   * - send the output<br>
+   * - wait for the next tick
+   *
+   * <p>Ticks run at a fixed rate. The time spent on a tick is subtracted from the wait, and a game
+   * that falls behind catches up by running the missed ticks without waiting.
    *
    * @throws ExecutionException if an exception occurs during execution.
    * @throws InterruptedException if the service is interrupted prior to shutdown.
    */
   @Override
   public Void call() throws ExecutionException, InterruptedException {
+    final TickScheduler scheduler = new TickScheduler(FRAMES_PER_SECOND,MAX_CATCH_UP_TICKS);
+    setScheduler(scheduler);
+    start();
+    try {
+      long skippedTicks = 0;
+      scheduler.start();
+      while (true) {
+        scheduler.beginTick();
+        if (!tick()) {
+          break;
+        }
+        scheduler.awaitNextTick();
+        if (scheduler.getSkippedTicks() > skippedTicks) {
+          LOGGER.warning("Game " + hashCode() + " skipped "
+              + (scheduler.getSkippedTicks() - skippedTicks) + " ticks");
+          skippedTicks = scheduler.getSkippedTicks();
+        }
+      }
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        throw new InterruptedException();
+      }
+    } finally {
+      finish();
+    }
+    return null; 
+  }
+
+  /**
+   * Send the initial state of the game to the players and start the game loop.
+   *
+   * <p>Must be called once, before the first {@link #tick() tick}.
+   */
+  void start() {
     StringBuffer buf = new StringBuffer();
     for (Player player : team) {
       buf.append(player.getName() + "@" + player.getId() + " ");
@@ -107,57 +154,81 @@ class Game implements Service<Void> {
     flushCommands();
 
     gameLoop.call();
-    try {
-      int frameCounter = 0;
-      while (state.get()) {
-        boolean commandsAvailable = false;
-        gameLoop.processInput();
-        gameLoop.update();
-        Command[] commands = gameLoop.drainCommands();
-        if (0 != commands.length) {
-          commandsAvailable = true;
-        }
-        for (Command command : commands) {
-          distributeCommand(command);
-        }
-        if (world.count(PLAYER) == 0) {
-          distributeCommand(new PlayersLostCommand());
-          state.set(false);
-          flushCommands();
-          break;
-        } else if (world.count(INVADER) == 0) {
-          distributeCommand(new PlayersWonCommand());
-          state.set(false);
-          flushCommands();
-          break;
-        }
-        /* Do a complete refresh every 8 seconds. */
-        frameCounter = (frameCounter + 1) % (FRAMES_PER_SECOND * 8);
-        if (frameCounter == FRAMES_PER_SECOND * 8) {
-          distributeCommand(new RefreshEntitiesCommand(world.getEntities()));
-          commandsAvailable = true;
-          frameCounter = 0;
-        } else {
-          ++frameCounter;
-        }
-        if (commandsAvailable) {
-          distributeCommand(new FlushScreenCommand());
-          flushCommands();
-        }
-        Thread.sleep(1000 / FRAMES_PER_SECOND);
-      }
-    } catch (InterruptedException intException) {
-      if (state.get()) {
-        throw new InterruptedException();
-      }
-    } finally {
-      distributeCommand(new QuitGameCommand());
-      shutdown();
+  }
+
+  /**
+   * Do the work of one tick: process the input, update the game state and send the output.
+   *
+   * <p>Does not wait, the caller is responsible for pacing the ticks.
+   *
+   * @return true if the game goes on, false if it is over.
+   */
+  boolean tick() {
+    if (!state.get()) {
+      return false;
+    }
+    boolean commandsAvailable = false;
+    gameLoop.processInput();
+    gameLoop.update();
+    Command[] commands = gameLoop.drainCommands();
+    if (0 != commands.length) {
+      commandsAvailable = true;
+    }
+    for (Command command : commands) {
+      distributeCommand(command);
+    }
+    if (world.count(PLAYER) == 0) {
+      distributeCommand(new PlayersLostCommand());
+      state.set(false);
+      flushCommands();
+      return false;
+    } else if (world.count(INVADER) == 0) {
+      distributeCommand(new PlayersWonCommand());
+      state.set(false);
+      flushCommands();
+      return false;
     }
+    /* Do a complete refresh every 8 seconds. */
+    ++tickCount;
+    if (tickCount % (FRAMES_PER_SECOND * 8) == 0) {
+      distributeCommand(new RefreshEntitiesCommand(world.getEntities()));
+      commandsAvailable = true;
+    }
+    if (commandsAvailable) {
+      distributeCommand(new FlushScreenCommand());
+      flushCommands();
+    }
+    return true;
+  }
 
+  /** Tell the players that the game is over and free all resources. */
+  void finish() {
+    distributeCommand(new QuitGameCommand());
+    flushCommands();
+    shutdown();
     LOGGER.info("Game " + hashCode() + " terminated");
+  }
 
-    return null; 
+  /**
+   * Set the scheduler pacing the ticks of this game.
+   *
+   * <p>The scheduler is only used for reporting the lag.
+   */
+  void setScheduler(TickScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * How far behind schedule the game loop is.
+   *
+   * @return the lag of the last tick, in milliseconds.
+   */
+  public long getTickLagMillis() {
+    final TickScheduler current = scheduler;
+    if (current == null) {
+      return 0;
+    }
+    return TimeUnit.NANOSECONDS.toMillis(current.getLagNanos());
   }
 
   /** Close the connections of all players in the team and stop all running subtasks.*/
@@ -171,7 +242,7 @@ class Game implements Service<Void> {
   }
 
   /**
-   * Forward {@code command} to all the team.
+   * Add {@code command} to the frame which is sent to all the team on the next flush.
    *
    * @throws NullPointerException if the argument is {@code null}.
    */
@@ -179,14 +250,18 @@ class Game implements Service<Void> {
     if (command == null) {
       throw new NullPointerException();
     }
-    for (Player player : team) {
-      player.push(command);
-    }
+    frameBuf.add(command);
   }
 
+  /** Encode the current frame once and send it to all the team. */
   private void flushCommands() {
+    if (frameBuf.isEmpty()) {
+      return;
+    }
+    final EncodedFrame frame = EncodedFrame.encode(frameBuf);
+    frameBuf.clear();
     for (Player player : team) {
-      player.flush();
+      player.send(frame);
     }
   }
 }
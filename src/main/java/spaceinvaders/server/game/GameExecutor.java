@@ -0,0 +1,19 @@
+package spaceinvaders.server.game;
+
+import java.util.concurrent.CompletableFuture;
+
+/** Runs games. */
+interface GameExecutor {
+  /**
+   * Start running {@code game}.
+   *
+   * @return a future which is completed as soon as the game is over.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   * @throws RejectedExecutionException if the game cannot be started.
+   */
+  public CompletableFuture<Void> submit(Game game);
+
+  /** Stop all running games. */
+  public void shutdown();
+}
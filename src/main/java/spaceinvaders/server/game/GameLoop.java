@@ -10,8 +10,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import spaceinvaders.command.Command;
 import spaceinvaders.command.client.ChangeScoreCommand;
 import spaceinvaders.command.client.GameOverCommand;
@@ -19,73 +17,80 @@ import spaceinvaders.command.client.MoveEntityCommand;
 import spaceinvaders.command.client.SpawnEntityCommand;
 import spaceinvaders.command.client.TranslateGroupCommand;
 import spaceinvaders.command.client.WipeOutEntityCommand;
-import spaceinvaders.game.EntityEnum;
 import spaceinvaders.game.GameConfig;
+import spaceinvaders.server.game.world.Formation;
 import spaceinvaders.server.game.world.LogicEntity;
 import spaceinvaders.server.game.world.PlayerBullet;
 import spaceinvaders.server.game.world.World;
 import spaceinvaders.server.player.Player;
-import spaceinvaders.utility.AutoSwitch;
 import spaceinvaders.utility.Service;
+import spaceinvaders.utility.TickSwitch;
+import spaceinvaders.utility.TimerWheel;
 
 /** Provides methods for handling player input and advancing the game simulation. */
 public class GameLoop implements Service<Void> {
   private static final int GUARD_PIXELS = 32;
+  private static final int TIMER_WHEEL_SLOTS = 64;
 
   private final GameConfig config = GameConfig.getInstance();
-  private final AutoSwitch invadersMovement = new AutoSwitch(config.speed().invader().getRate()); 
-  private final AutoSwitch bulletsMovement = new AutoSwitch(config.speed().bullet().getRate()); 
-  private final AutoSwitch invadersShooting = new AutoSwitch(); 
-  private final List<Future<?>> future = new ArrayList<>();
+  private final TimerWheel timers = new TimerWheel(TIMER_WHEEL_SLOTS);
+  private final TickSwitch invadersMovement;
+  private final TickSwitch bulletsMovement;
+  private final TickSwitch invadersShooting;
   private final List<Command> commandBuf = new ArrayList<>();
+  private final List<LogicEntity> collisionBuf = new ArrayList<>();
   private final List<Player> team;
   private final World world;
   private final Random rng;
-  private final ExecutorService threadPool;
-  private final Integer invadersVelocityY = config.speed().invader().getDistance() * 2;
-  private Integer invadersVelocityX = config.speed().invader().getDistance();
+  private final int ticksPerSecond;
+  private final int invadersVelocityY = config.speed().invader().getDistance() * 2;
+  private int invadersVelocityX = config.speed().invader().getDistance();
   private boolean gameOver = false;
 
   /**
    * @param team human players.
    * @param world game environment.
    * @param rng pseudorandom number generator.
-   * @param threadPool used for running auto-switches.
+   * @param ticksPerSecond how many times per second {@link #update() update} is called.
    *
    * @throws NullPointerException if an argument is {@code null}.
+   * @throws IllegalArgumentException if {@code ticksPerSecond} is not positive.
    */
-  public GameLoop(List<Player> team, World world, Random rng, ExecutorService threadPool) {
-    if (team == null || world == null || rng == null || threadPool == null) {
+  public GameLoop(List<Player> team, World world, Random rng, int ticksPerSecond) {
+    if (team == null || world == null || rng == null) {
       throw new NullPointerException();
     }
+    if (ticksPerSecond <= 0) {
+      throw new IllegalArgumentException();
+    }
     this.team = team;
     this.world = world;
     this.rng = rng;
-    this.threadPool = threadPool;
-    invadersShooting.setRate(world.count(INVADER) * config.getInvadersShootingFactor());
+    this.ticksPerSecond = ticksPerSecond;
+    invadersMovement = new TickSwitch(timers,toTicks(config.speed().invader().getRate()));
+    bulletsMovement = new TickSwitch(timers,toTicks(config.speed().bullet().getRate()));
+    invadersShooting = new TickSwitch(timers,
+        toTicks(world.count(INVADER) * config.getInvadersShootingFactor()));
   }
 
   /**
-   * Start auto-switches.
+   * Start the switches which pace the CPU controlled entities.
    *
-   * @throws RejectedExecutionException if a subtask cannot be executed.
+   * <p>The switches are driven by {@link #update() update}, so no threads are used.
    */
   @Override
   public Void call() {
-    future.add(threadPool.submit(invadersMovement));
-    future.add(threadPool.submit(bulletsMovement));
-    future.add(threadPool.submit(invadersShooting));
+    invadersMovement.start();
+    bulletsMovement.start();
+    invadersShooting.start();
     return null;
   }
 
   @Override
   public void shutdown() {
-    invadersMovement.shutdown();
-    bulletsMovement.shutdown();
-    invadersShooting.shutdown();
-    for (Future<?> it : future) {
-      it.cancel(true);
-    }
+    invadersMovement.stop();
+    bulletsMovement.stop();
+    invadersShooting.stop();
   }
 
   /** Drain the command buffer. */
@@ -111,13 +116,7 @@ public class GameLoop implements Service<Void> {
       } else {
         player.close();
         it.remove();
-        Iterator<LogicEntity> entityIt = world.getIterator(PLAYER);
-        while (entityIt.hasNext()) {
-          if (entityIt.next().getId() == player.getId()) {
-            entityIt.remove();
-            break;
-          }
-        }
+        world.removeById(player.getId());
         commandBuf.add(new WipeOutEntityCommand(player.getId()));
       }
     }
@@ -129,12 +128,9 @@ public class GameLoop implements Service<Void> {
    * @param id the ID of the player.
    */
   public void movePlayerLeft(int id) {
-    Iterator<LogicEntity> it = world.getIterator(PLAYER);
-    while (it.hasNext()) {
-      LogicEntity player = it.next();
-      if (player.getId() == id) {
-        movePlayer(player,player.getX() - config.speed().player().getDistance());
-      }
+    LogicEntity player = findPlayer(id);
+    if (player != null) {
+      movePlayer(player,player.getX() - config.speed().player().getDistance());
     }
   }
 
@@ -144,15 +140,22 @@ public class GameLoop implements Service<Void> {
    * @param id the ID of the player.
    */
   public void movePlayerRight(int id) {
-    Iterator<LogicEntity> it = world.getIterator(EntityEnum.PLAYER);
-    while (it.hasNext()) {
-      LogicEntity player = it.next();
-      if (player.getId() == id) {
-        movePlayer(player,player.getX() + config.speed().player().getDistance());
-      }
+    LogicEntity player = findPlayer(id);
+    if (player != null) {
+      movePlayer(player,player.getX() + config.speed().player().getDistance());
     }
   }
 
+  /**
+   * Find the character of a player.
+   *
+   * @return the character or {@code null} if the player is no longer part of the world.
+   */
+  private LogicEntity findPlayer(int id) {
+    LogicEntity player = world.getById(id);
+    return (player != null && player.getType() == PLAYER ? player : null);
+  }
+
   private void movePlayer(LogicEntity player, int newX) {
     final int playerW = config.player().getWidth();
     final int frameW = config.frame().getWidth();
@@ -173,57 +176,57 @@ public class GameLoop implements Service<Void> {
    * @param id the ID of the shooter.
    */
   public void playerShoot(int id) {
-    Iterator<LogicEntity> it = world.getIterator(EntityEnum.PLAYER);
-    while (it.hasNext()) {
-      LogicEntity player = it.next();
-      if (player.getId() == id) {
-        final int playerW = config.player().getWidth();
-        final int bulletW = config.playerBullet().getWidth();
-        final int bulletX = player.getX() + playerW / 2 - bulletW / 2;
-        final int bulletY = player.getY() - GUARD_PIXELS;
-        LogicEntity bullet = world.spawnPlayerBullet(player.getId(),bulletX,bulletY);
-        commandBuf.add(
-            new SpawnEntityCommand(bullet.getId(),PLAYER_BULLET,bullet.getX(),bullet.getY()));
-      }
+    LogicEntity player = findPlayer(id);
+    if (player != null) {
+      final int playerW = config.player().getWidth();
+      final int bulletW = config.playerBullet().getWidth();
+      final int bulletX = player.getX() + playerW / 2 - bulletW / 2;
+      final int bulletY = player.getY() - GUARD_PIXELS;
+      LogicEntity bullet = world.spawnPlayerBullet(player.getId(),bulletX,bulletY);
+      commandBuf.add(
+          new SpawnEntityCommand(bullet.getId(),PLAYER_BULLET,bullet.getX(),bullet.getY()));
     }
   }
 
   /** Advance the game simulation one step. */
   public void update() {
+    timers.advance();
     entitiesMove();
     entitiesShoot();
     detectCollision();
   }
 
-  /** Move all entities controlled by the CPU. */
+  /** Convert a duration in milliseconds to a number of ticks, rounding to the nearest tick. */
+  private long toTicks(long milliseconds) {
+    return Math.max(1,(milliseconds * ticksPerSecond + 500) / 1000);
+  }
+
+  /**
+   * Move all entities controlled by the CPU.
+   *
+   * <p>The entities are accessed by index, so that no iterators are created on every tick. The
+   * bounds of the invaders are taken from their {@link Formation}, instead of being searched.
+   */
   private void entitiesMove() {
     if (gameOver) {
       return;
     }
 
-    Iterator<LogicEntity> it;
-
     /* Move invaders */
     if (invadersMovement.isOn()) {
+      final Formation formation = world.getFormation();
+      if (formation.isEmpty()) {
+        // This should never happen.
+        throw new AssertionError();
+      }
       boolean moveDown = false;
       if (invadersVelocityX > 0) {
-        int maxX = Integer.MIN_VALUE;
-        it = world.getIterator(INVADER);
-        while (it.hasNext()) {
-          LogicEntity invader = it.next();
-          maxX = Math.max(maxX,invader.getX());
-        }
-        if (maxX + config.invader().getWidth() >= config.frame().getWidth() - GUARD_PIXELS) {
+        if (formation.getMaxX() + config.invader().getWidth()
+            >= config.frame().getWidth() - GUARD_PIXELS) {
           moveDown = true;
         }
       } else {
-        int minX = Integer.MAX_VALUE;
-        it = world.getIterator(INVADER);
-        while (it.hasNext()) {
-          LogicEntity invader = it.next();
-          minX = Math.min(minX,invader.getX());
-        }
-        if (minX <= GUARD_PIXELS) {
+        if (formation.getMinX() <= GUARD_PIXELS) {
           moveDown = true;
         }
       }
@@ -231,35 +234,18 @@ public class GameLoop implements Service<Void> {
         // Change horizontal direction.
         invadersVelocityX = -invadersVelocityX;
         commandBuf.add(new TranslateGroupCommand(INVADER,0,invadersVelocityY));
-        int maxY = Integer.MIN_VALUE;
-        it = world.getIterator(INVADER);
-        while (it.hasNext()) {
-          LogicEntity invader = it.next();
-          invader.move(invader.getX(),invader.getY() + invadersVelocityY);
-          maxY = Math.max(maxY,invader.getY());
-        }
-        if (maxY >= config.frame().getHeight() - config.player().getHeight()) {
+        world.translate(INVADER,0,invadersVelocityY);
+        if (formation.getMaxY() >= config.frame().getHeight() - config.player().getHeight()) {
           /* Invaders reached players. */
-          it = world.getIterator(PLAYER);
-          while (it.hasNext()) {
-            it.next();
-            it.remove();
+          for (int index = world.count(PLAYER) - 1; index >= 0; --index) {
+            world.remove(PLAYER,index);
           }
           gameOver = true;
           return;
         }
       } else {
         /* Invaders move horizontally. */
-        it = world.getIterator(INVADER);
-        LogicEntity invader = null;
-        while (it.hasNext()) {
-          invader = it.next();
-          invader.move(invader.getX() + invadersVelocityX,invader.getY());
-        }
-        if (invader == null) {
-          // This should never happen.
-          throw new AssertionError();
-        }
+        world.translate(INVADER,invadersVelocityX,0);
         commandBuf.add(new TranslateGroupCommand(INVADER,invadersVelocityX,0));
       }
       invadersMovement.toggle();
@@ -271,13 +257,15 @@ public class GameLoop implements Service<Void> {
 
       /* Invader bullets */
       if (world.count(INVADER_BULLET) > 0) {
-        it = world.getIterator(INVADER_BULLET);
-        while (it.hasNext()) {
-          LogicEntity bullet = it.next();
-          bullet.move(bullet.getX(),bullet.getY() + distance);
-          if (bullet.getY() >= config.frame().getHeight() + config.frame().getHeight() / 4) {
+        world.translate(INVADER_BULLET,0,distance);
+        final int limitY = config.frame().getHeight() + config.frame().getHeight() / 4;
+        int index = 0;
+        while (index < world.count(INVADER_BULLET)) {
+          if (world.get(INVADER_BULLET,index).getY() >= limitY) {
             /* Dirty trick to make sure the bullet disappears. */
-            it.remove();
+            world.remove(INVADER_BULLET,index);
+          } else {
+            ++index;
           }
         }
         commandBuf.add(new TranslateGroupCommand(INVADER_BULLET,0,distance));
@@ -286,13 +274,16 @@ public class GameLoop implements Service<Void> {
       /* Player bullets */
       distance = -distance;
       if (world.count(PLAYER_BULLET) > 0) {
-        it = world.getIterator(PLAYER_BULLET);
-        while (it.hasNext()) {
-          LogicEntity bullet = it.next();
-          bullet.move(bullet.getX(),bullet.getY() + distance);
-          if (bullet.getY() + config.playerBullet().getHeight() < 0) {
+        world.translate(PLAYER_BULLET,0,distance);
+        final int bulletH = config.playerBullet().getHeight();
+        int index = 0;
+        while (index < world.count(PLAYER_BULLET)) {
+          LogicEntity bullet = world.get(PLAYER_BULLET,index);
+          if (bullet.getY() + bulletH < 0) {
             commandBuf.add(new ChangeScoreCommand(((PlayerBullet) bullet).getShooterId(),-1));
-            it.remove();
+            world.remove(PLAYER_BULLET,index);
+          } else {
+            ++index;
           }
         }
         commandBuf.add(new TranslateGroupCommand(PLAYER_BULLET,0,distance));
@@ -302,38 +293,25 @@ public class GameLoop implements Service<Void> {
     }
   }
 
+  /**
+   * Let a random invader from the bottom of the formation shoot.
+   *
+   * <p>The shooter is taken from the live columns of the {@link Formation}, without searching.
+   */
   private void entitiesShoot() {
     if (gameOver) {
       return;
     }
 
-    Iterator<LogicEntity> it;
-
     /* Invaders shoot. */
     if (invadersShooting.isOn()) {
-      /* Get the lowest invader in each column. */
-      List<LogicEntity> shooters = new ArrayList<LogicEntity>(config.getInvaderCols());
-      it = world.getIterator(INVADER);
-      while (it.hasNext()) {
-        LogicEntity invader = it.next();
-        LogicEntity shooter;
-        boolean addToEnd = true;
-        for (int index = 0; index < shooters.size(); ++index) {
-          shooter = shooters.get(index);
-          if (shooter.getX() == invader.getX()) {
-            if (invader.getY() > shooter.getY()) {
-              shooters.set(index,invader);
-            }
-            addToEnd = false;
-            break;
-          }
-        }
-        if (addToEnd) {
-          shooters.add(invader);
-        }
+      final Formation formation = world.getFormation();
+      if (formation.isEmpty()) {
+        // This should never happen.
+        throw new AssertionError();
       }
-
-      LogicEntity shooter = shooters.get(rng.nextInt(shooters.size()));
+      final int column = formation.getLiveColumn(rng.nextInt(formation.getLiveColumnCount()));
+      LogicEntity shooter = formation.getLowest(column);
       int bulletX = shooter.getX() + config.invader().getWidth() / 2
           - config.invaderBullet().getWidth() / 2;
       int bulletY = shooter.getY() + config.invader().getHeight() + 5;
@@ -344,106 +322,96 @@ public class GameLoop implements Service<Void> {
     }
   }
 
+  /**
+   * Find and resolve collisions.
+   *
+   * <p>For each entity, only the entities found near it in the spatial grid of the
+   * {@link World} are checked.
+   */
   private void detectCollision() {
     if (gameOver) {
       return;
     }
 
-    Iterator<LogicEntity> invaderIt;
-    Iterator<LogicEntity> playerIt;
-    Iterator<LogicEntity> shieldIt;
-    Iterator<LogicEntity> playerBulletIt;
-    Iterator<LogicEntity> invaderBulletIt;
+    int index;
 
     /* Invaders vs shields. */
-    invaderIt = world.getIterator(INVADER);
-    while (invaderIt.hasNext()) {
-      LogicEntity invader = invaderIt.next();
-      shieldIt = world.getIterator(SHIELD);
-      LogicEntity shield;
-      while (shieldIt.hasNext()) {
-        shield = shieldIt.next();
-        if (shield.collides(invader)) {
-          commandBuf.add(new WipeOutEntityCommand(shield.getId()));
-          shieldIt.remove();
-        }
+    for (index = 0; index < world.count(INVADER); ++index) {
+      world.findCollisions(world.get(INVADER,index),SHIELD,collisionBuf);
+      for (int shield = 0; shield < collisionBuf.size(); ++shield) {
+        commandBuf.add(new WipeOutEntityCommand(collisionBuf.get(shield).getId()));
+        world.remove(collisionBuf.get(shield));
       }
     }
 
     /* Player bullets vs invader bullets. */
-    playerBulletIt = world.getIterator(PLAYER_BULLET);
-    while (playerBulletIt.hasNext()) {
-      LogicEntity playerBullet = playerBulletIt.next();
-      invaderBulletIt = world.getIterator(INVADER_BULLET);
-      LogicEntity invaderBullet;
-      while (invaderBulletIt.hasNext()) {
-        invaderBullet = invaderBulletIt.next();
-        if (playerBullet.collides(invaderBullet)) {
-          commandBuf.add(new WipeOutEntityCommand(invaderBullet.getId()));
-          commandBuf.add(new WipeOutEntityCommand(playerBullet.getId()));
-          invaderBulletIt.remove();
-          playerBulletIt.remove();
-          break;
-        }
+    index = 0;
+    while (index < world.count(PLAYER_BULLET)) {
+      LogicEntity playerBullet = world.get(PLAYER_BULLET,index);
+      world.findCollisions(playerBullet,INVADER_BULLET,collisionBuf);
+      if (collisionBuf.isEmpty()) {
+        ++index;
+        continue;
       }
+      LogicEntity invaderBullet = collisionBuf.get(0);
+      commandBuf.add(new WipeOutEntityCommand(invaderBullet.getId()));
+      commandBuf.add(new WipeOutEntityCommand(playerBullet.getId()));
+      world.remove(invaderBullet);
+      world.remove(PLAYER_BULLET,index);
     }
 
     /* Player bullets vs invaders. */
-    playerBulletIt = world.getIterator(PLAYER_BULLET);
-    while (playerBulletIt.hasNext()) {
-      LogicEntity playerBullet = playerBulletIt.next();
-      invaderIt = world.getIterator(INVADER);
-      while (invaderIt.hasNext()) {
-        LogicEntity invader = invaderIt.next();
-        if (playerBullet.collides(invader)) {
-          commandBuf.add(new WipeOutEntityCommand(invader.getId()));
-          commandBuf.add(new WipeOutEntityCommand(playerBullet.getId()));
-          commandBuf.add(new ChangeScoreCommand(((PlayerBullet) playerBullet).getShooterId(),2));
-          invaderIt.remove();
-          playerBulletIt.remove();
-
-          /* Speed things up. */
-          invadersShooting.setRate(world.count(INVADER) * config.getInvadersShootingFactor());
-          break;
-        }
+    index = 0;
+    while (index < world.count(PLAYER_BULLET)) {
+      LogicEntity playerBullet = world.get(PLAYER_BULLET,index);
+      world.findCollisions(playerBullet,INVADER,collisionBuf);
+      if (collisionBuf.isEmpty()) {
+        ++index;
+        continue;
       }
+      LogicEntity invader = collisionBuf.get(0);
+      commandBuf.add(new WipeOutEntityCommand(invader.getId()));
+      commandBuf.add(new WipeOutEntityCommand(playerBullet.getId()));
+      commandBuf.add(new ChangeScoreCommand(((PlayerBullet) playerBullet).getShooterId(),2));
+      world.remove(invader);
+      world.remove(PLAYER_BULLET,index);
+
+      /* Speed things up. */
+      invadersShooting.setRate(
+          toTicks(world.count(INVADER) * config.getInvadersShootingFactor()));
     }
 
     /* Invader bullets vs shields. */
-    invaderBulletIt = world.getIterator(INVADER_BULLET);
-    while (invaderBulletIt.hasNext()) {
-      LogicEntity invaderBullet = invaderBulletIt.next();
-      shieldIt = world.getIterator(SHIELD);
-      LogicEntity shield;
-      while (shieldIt.hasNext()) {
-        shield = shieldIt.next();
-        if (invaderBullet.collides(shield)) {
-          commandBuf.add(new WipeOutEntityCommand(shield.getId()));
-          commandBuf.add(new WipeOutEntityCommand(invaderBullet.getId()));
-          invaderBulletIt.remove();
-          shieldIt.remove();
-          break;
-        }
+    index = 0;
+    while (index < world.count(INVADER_BULLET)) {
+      LogicEntity invaderBullet = world.get(INVADER_BULLET,index);
+      world.findCollisions(invaderBullet,SHIELD,collisionBuf);
+      if (collisionBuf.isEmpty()) {
+        ++index;
+        continue;
       }
+      LogicEntity shield = collisionBuf.get(0);
+      commandBuf.add(new WipeOutEntityCommand(shield.getId()));
+      commandBuf.add(new WipeOutEntityCommand(invaderBullet.getId()));
+      world.remove(INVADER_BULLET,index);
+      world.remove(shield);
     }
 
     /* Invader bullets vs players. */
-    invaderBulletIt = world.getIterator(INVADER_BULLET);
-    while (invaderBulletIt.hasNext()) {
-      LogicEntity invaderBullet = invaderBulletIt.next();
-      playerIt = world.getIterator(PLAYER);
-      LogicEntity player;
-      while (playerIt.hasNext()) {
-        player = playerIt.next();
-        if (invaderBullet.collides(player)) {
-          commandBuf.add(new WipeOutEntityCommand(invaderBullet.getId()));
-          commandBuf.add(new WipeOutEntityCommand(player.getId()));
-          commandBuf.add(new GameOverCommand(player.getId()));
-          invaderBulletIt.remove();
-          playerIt.remove();
-          break;
-        }
+    index = 0;
+    while (index < world.count(INVADER_BULLET)) {
+      LogicEntity invaderBullet = world.get(INVADER_BULLET,index);
+      world.findCollisions(invaderBullet,PLAYER,collisionBuf);
+      if (collisionBuf.isEmpty()) {
+        ++index;
+        continue;
       }
+      LogicEntity player = collisionBuf.get(0);
+      commandBuf.add(new WipeOutEntityCommand(invaderBullet.getId()));
+      commandBuf.add(new WipeOutEntityCommand(player.getId()));
+      commandBuf.add(new GameOverCommand(player.getId()));
+      world.remove(INVADER_BULLET,index);
+      world.remove(player);
     }
   }
 }
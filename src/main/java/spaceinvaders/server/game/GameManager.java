@@ -1,21 +1,20 @@
 package spaceinvaders.server.game;
 
 import static java.util.logging.Level.SEVERE;
+import static spaceinvaders.utility.GameExecutionEnum.SHARDED;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import spaceinvaders.Config;
 import spaceinvaders.server.player.Player;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
@@ -23,28 +22,52 @@ import spaceinvaders.utility.ServiceState;
 /**
  * Creates new games.
  *
- * <p>When a player is ready to play, he joins a team. If then the team has the desired size, the
- * game can start. Otherwise, he has to wait until other players join.
+ * <p>When a player is ready to play, it is handed to a {@link Matchmaker}, which starts a game as
+ * soon as a team of the desired size has been formed.
  */
 public class GameManager implements Observer, Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(GameManager.class.getName());
   private static final int MAX_TEAM_SIZE = 3;
 
-  private final List<List<Player>> teams = new ArrayList<>(MAX_TEAM_SIZE);
-  private final List<Future<?>> future = new LinkedList<>();
-  private final Lock futureListLock = new ReentrantLock();
+  private final Map<CompletableFuture<Void>,Game> runningGames = new ConcurrentHashMap<>();
+  private final CountDownLatch termination = new CountDownLatch(1);
   private final ServiceState state = new ServiceState();
-  private final ExecutorService cachedThreadPool = Executors.newCachedThreadPool();
+  private final GameExecutor gameExecutor;
+  private final Matchmaker matchmaker;
 
-  /** Construct a game manager with all teams set to 0 players. */ 
+  /**
+   * Construct a game manager with no players waiting.
+   *
+   * <p>Games are run according to the {@link spaceinvaders.utility.GameExecutionEnum mode}
+   * found in the application configuration.
+   */ 
   public GameManager() {
-    for (int index = 0; index < MAX_TEAM_SIZE; ++index) {
-      teams.add(new ArrayList<Player>(index));
+    final Config config = Config.getInstance();
+    if (config.getGameExecution() == SHARDED) {
+      int shards = config.getSimulationThreads();
+      if (shards <= 0) {
+        shards = Runtime.getRuntime().availableProcessors();
+      }
+      gameExecutor = new ShardedGameExecutor(shards);
+      LOGGER.info("Running games on " + shards + " simulation threads");
+    } else {
+      gameExecutor = new ThreadPerGameExecutor();
     }
+    matchmaker = new Matchmaker(MAX_TEAM_SIZE,config.getBackfillSeconds(),
+        new Consumer<List<Player>>() {
+          @Override
+          public void accept(List<Player> team) {
+            startGame(team);
+          }
+        });
     state.set(true);
   }
 
-  /** Receive a player which is ready to join a team. */
+  /**
+   * Receive a player which is ready to join a team.
+   *
+   * <p>May be called from several threads at once.
+   */
   @Override
   public void update(Observable observable, Object obj) {
     if (!(obj instanceof Player)) {
@@ -56,81 +79,79 @@ public class GameManager implements Observer, Service<Void> {
       player.close();
       return;
     }
-    List<Player> team = teams.get(player.getTeamSize() - 1);
-    team.add(player);
-
-    /* Clean up the team. */
-    Iterator<Player> it = team.iterator();
-    while (it.hasNext()) {
-      Player ply = it.next();
-      if (!ply.isOnline()) {
-        it.remove();
-      }
-    }
+    matchmaker.offer(player);
+  }
 
-    if (team.size() == player.getTeamSize()) {
-      teams.set(team.size() - 1,new ArrayList<Player>(team.size()));
-      futureListLock.lock();
-      try {
-        future.add(cachedThreadPool.submit(new Game(team,cachedThreadPool)));
-      } catch (Exception exception) {
-        // Do not stop this thread.
-        LOGGER.log(SEVERE,exception.toString(),exception);
-        for (Player ply : team) {
-          ply.close();
+  /**
+   * Start a game for a team formed by the matchmaker.
+   *
+   * <p>The game is forgotten as soon as it is over.
+   */
+  private void startGame(List<Player> team) {
+    try {
+      Game game = new Game(team);
+      final CompletableFuture<Void> gameFuture = gameExecutor.submit(game);
+      runningGames.put(gameFuture,game);
+      gameFuture.whenComplete(new BiConsumer<Void,Throwable>() {
+        @Override
+        public void accept(Void result, Throwable throwable) {
+          runningGames.remove(gameFuture);
+          if (throwable != null && !(throwable instanceof CancellationException)
+              && state.get()) {
+            // Do not stop the game manager.
+            LOGGER.log(SEVERE,throwable.toString(),throwable);
+          }
         }
+      });
+    } catch (Exception exception) {
+      // Do not stop this thread.
+      LOGGER.log(SEVERE,exception.toString(),exception);
+      for (Player ply : team) {
+        ply.close();
       }
-      futureListLock.unlock();
     }
   }
 
   /**
-   * Continuous checking of currently running games.
+   * Keep the game manager running until it is shut down.
    *
-   * <p>When a game has ended, its resources are freed.
+   * <p>Games are not checked periodically. Each of them is forgotten as soon as it is over.
    *
    * @throws InterruptedException if the service is interrupted prior to shutdown.
    */
   @Override
   public Void call() throws InterruptedException {
-    final long checkingRateMilliseconds = 1000;
-    Iterator<Future<?>> it;
-    while (state.get()) {
-      futureListLock.lock();
-      it = future.iterator();
-      while (it.hasNext()) {
-        Future<?> game = it.next();
-        if (game.isDone()) {
-          try {
-            game.get();
-          } catch (InterruptedException | CancellationException intException) {
-            if (state.get()) {
-              throw new InterruptedException();
-            }
-            break;
-          } catch (ExecutionException execException) {
-            // Do not stop the game manager.
-            LOGGER.log(SEVERE,execException.toString(),execException);
-          }
-          it.remove();
-        }
-      }
-      futureListLock.unlock();
-      try {
-        Thread.sleep(checkingRateMilliseconds);
-      } catch (InterruptedException exception) {
-        if (state.get()) {
-          throw new InterruptedException();
-        }
-        break;
+    try {
+      termination.await();
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        throw new InterruptedException();
       }
     }
     return null;
   }
 
+  /**
+   * Describe the games which are currently running and the players waiting for a team.
+   *
+   * @return one line per game, containing the ID of the game and its tick lag, followed by one line
+   *     per team size.
+   */
+  public String getStatus() {
+    StringBuffer buf = new StringBuffer();
+    buf.append("Running games: " + runningGames.size() + "\n");
+    for (Game game : runningGames.values()) {
+      buf.append("Game " + game.hashCode() + " lag: " + game.getTickLagMillis() + " ms\n");
+    }
+    buf.append(matchmaker.getStatus());
+    return buf.toString();
+  }
+
   @Override
   public void shutdown() {
     state.set(false);
-    cachedThreadPool.shutdownNow();
+    termination.countDown();
+    matchmaker.shutdown();
+    gameExecutor.shutdown();
   }
 }
@@ -0,0 +1,162 @@
+package spaceinvaders.server.game;
+
+import static java.util.logging.Level.SEVERE;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import spaceinvaders.utility.Service;
+import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.TickScheduler;
+
+/**
+ * A simulation thread which steps several games.
+ *
+ * <p>On every tick, each game assigned to the shard does the work of one tick, in round-robin
+ * order. All games of a shard share the same tick schedule. When no games are assigned, the shard
+ * waits for one without spinning.
+ */
+class GameShard implements Service<Void> {
+  private static final Logger LOGGER = Logger.getLogger(GameShard.class.getName());
+
+  private final BlockingQueue<ShardedGame> incomingGames = new LinkedBlockingQueue<>();
+  private final List<ShardedGame> games = new ArrayList<>();
+  private final AtomicInteger load = new AtomicInteger();
+  private final TickScheduler scheduler =
+      new TickScheduler(Game.FRAMES_PER_SECOND,Game.MAX_CATCH_UP_TICKS);
+  private final ServiceState state = new ServiceState();
+
+  public GameShard() {
+    state.set(true);
+  }
+
+  /**
+   * Assign a game to this shard.
+   *
+   * <p>The game is started at the beginning of the next tick of the shard.
+   *
+   * @return a future which is done when the game is over.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public CompletableFuture<Void> assign(Game game) {
+    if (game == null) {
+      throw new NullPointerException();
+    }
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    load.incrementAndGet();
+    if (!incomingGames.offer(new ShardedGame(game,future))) {
+      // This should never happen.
+      throw new AssertionError();
+    }
+    return future;
+  }
+
+  /** Number of games assigned to this shard, which are not over yet. */
+  public int getLoad() {
+    return load.get();
+  }
+
+  /**
+   * Start stepping games.
+   *
+   * @throws InterruptedException if the service is interrupted prior to shutdown.
+   */
+  @Override
+  public Void call() throws InterruptedException {
+    try {
+      while (state.get()) {
+        if (games.isEmpty()) {
+          adopt(incomingGames.take());
+          scheduler.start();
+        }
+        scheduler.beginTick();
+        ShardedGame pending;
+        while ((pending = incomingGames.poll()) != null) {
+          adopt(pending);
+        }
+        Iterator<ShardedGame> it = games.iterator();
+        while (it.hasNext()) {
+          ShardedGame sharded = it.next();
+          boolean running = false;
+          Throwable cause = null;
+          try {
+            running = sharded.game.tick();
+          } catch (RuntimeException rte) {
+            // Do not stop the other games.
+            LOGGER.log(SEVERE,rte.toString(),rte);
+            cause = rte;
+          }
+          if (!running) {
+            it.remove();
+            retire(sharded,cause);
+          }
+        }
+        scheduler.awaitNextTick();
+      }
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        throw new InterruptedException();
+      }
+    } finally {
+      for (ShardedGame sharded : games) {
+        retire(sharded,null);
+      }
+      games.clear();
+      ShardedGame pending;
+      while ((pending = incomingGames.poll()) != null) {
+        retire(pending,null);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void shutdown() {
+    state.set(false);
+  }
+
+  /** Start a newly assigned game and add it to the games stepped by this shard. */
+  private void adopt(ShardedGame sharded) {
+    try {
+      sharded.game.setScheduler(scheduler);
+      sharded.game.start();
+      games.add(sharded);
+    } catch (RuntimeException rte) {
+      LOGGER.log(SEVERE,rte.toString(),rte);
+      retire(sharded,rte);
+    }
+  }
+
+  /** Free the resources of a game which is over and complete its future. */
+  private void retire(ShardedGame sharded, Throwable cause) {
+    try {
+      sharded.game.finish();
+    } catch (RuntimeException rte) {
+      LOGGER.log(SEVERE,rte.toString(),rte);
+    } finally {
+      load.decrementAndGet();
+      if (cause == null) {
+        sharded.future.complete(null);
+      } else {
+        sharded.future.completeExceptionally(cause);
+      }
+    }
+  }
+
+  /** A game together with the future used to signal its end. */
+  private static class ShardedGame {
+    private final Game game;
+    private final CompletableFuture<Void> future;
+
+    public ShardedGame(Game game, CompletableFuture<Void> future) {
+      this.game = game;
+      this.future = future;
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package spaceinvaders.server.game;
+
+import static java.util.logging.Level.SEVERE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import spaceinvaders.server.player.Player;
+
+/**
+ * Forms teams out of the players who are ready to play.
+ *
+ * <p>Players wait in one queue for every team size and are matched in the order in which they
+ * arrived. Adding a player never blocks, so it can be done from any number of threads at once. The
+ * thread which adds a player also forms the teams, unless another thread is already doing it for
+ * the same team size, in which case the other thread takes over.
+ *
+ * <p>Players who went offline while waiting are dropped when they are taken out of the queue.
+ *
+ * <p>If backfill is enabled, a team starts with fewer players once its first player has waited for
+ * too long.
+ */
+class Matchmaker {
+  private static final Logger LOGGER = Logger.getLogger(Matchmaker.class.getName());
+
+  private final List<TeamQueue> queues;
+  private final Consumer<List<Player>> gameStarter;
+  private final long backfillNanos;
+  private final ScheduledExecutorService backfillExecutor;
+
+  /**
+   * @param maxTeamSize the largest team size. Team sizes start at 1.
+   * @param backfillSeconds how long a player may wait for a full team. If 0, players always wait
+   *     for a full team.
+   * @param gameStarter starts a game for every team which has been formed.
+   *
+   * @throws NullPointerException if an argument is {@code null}.
+   * @throws IllegalArgumentException if {@code maxTeamSize} is less than 1 or
+   *     {@code backfillSeconds} is negative.
+   */
+  public Matchmaker(int maxTeamSize, int backfillSeconds, Consumer<List<Player>> gameStarter) {
+    if (gameStarter == null) {
+      throw new NullPointerException();
+    }
+    if (maxTeamSize < 1 || backfillSeconds < 0) {
+      throw new IllegalArgumentException();
+    }
+    this.gameStarter = gameStarter;
+    queues = new ArrayList<>(maxTeamSize);
+    for (int teamSize = 1; teamSize <= maxTeamSize; ++teamSize) {
+      queues.add(new TeamQueue(teamSize));
+    }
+    backfillNanos = TimeUnit.SECONDS.toNanos(backfillSeconds);
+    if (backfillSeconds > 0) {
+      backfillExecutor = Executors.newSingleThreadScheduledExecutor();
+      backfillExecutor.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          backfill();
+        }
+      },1,1,TimeUnit.SECONDS);
+    } else {
+      backfillExecutor = null;
+    }
+  }
+
+  /**
+   * Put a player in the queue for its team size.
+   *
+   * <p>If the player completes a team, the game may start before this method returns.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   * @throws IllegalArgumentException if the team size of the player is not supported.
+   */
+  public void offer(Player player) {
+    if (player == null) {
+      throw new NullPointerException();
+    }
+    if (player.getTeamSize() < 1 || player.getTeamSize() > queues.size()) {
+      throw new IllegalArgumentException();
+    }
+    queues.get(player.getTeamSize() - 1).add(player);
+  }
+
+  /**
+   * Describe the queues.
+   *
+   * @return one line per team size, with the number of waiting players and the time waited by the
+   *     players who have been matched.
+   */
+  public String getStatus() {
+    StringBuilder buf = new StringBuilder();
+    for (TeamQueue queue : queues) {
+      buf.append(queue.getStatus());
+    }
+    return buf.toString();
+  }
+
+  /** Stop checking for teams to backfill. */
+  public void shutdown() {
+    if (backfillExecutor != null) {
+      backfillExecutor.shutdownNow();
+    }
+  }
+
+  private void backfill() {
+    try {
+      // Teams of one are never left waiting.
+      for (int index = 1; index < queues.size(); ++index) {
+        queues.get(index).match(true);
+      }
+    } catch (RuntimeException rte) {
+      // Keep checking.
+      LOGGER.log(SEVERE,rte.toString(),rte);
+    }
+  }
+
+  /** A player and the moment when it started waiting. */
+  private static class WaitingPlayer {
+    final Player player;
+    final long since;
+
+    WaitingPlayer(Player player, long since) {
+      this.player = player;
+      this.since = since;
+    }
+  }
+
+  /** The players waiting for a team of a certain size. */
+  private class TeamQueue {
+    private final int teamSize;
+    private final ConcurrentLinkedDeque<WaitingPlayer> waiting = new ConcurrentLinkedDeque<>();
+    /* The size of the deque is not a constant-time operation. */
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final AtomicBoolean matching = new AtomicBoolean();
+    private final AtomicLong teamCount = new AtomicLong();
+    private final AtomicLong backfilledTeamCount = new AtomicLong();
+    private final AtomicLong matchedCount = new AtomicLong();
+    private final AtomicLong prunedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    TeamQueue(int teamSize) {
+      this.teamSize = teamSize;
+    }
+
+    void add(Player player) {
+      waiting.offerLast(new WaitingPlayer(player,System.nanoTime()));
+      waitingCount.incrementAndGet();
+      match(false);
+    }
+
+    /**
+     * Form as many teams as possible, unless another thread is already doing it.
+     *
+     * @param backfill whether a team may start with fewer players, if it waited for too long.
+     */
+    void match(boolean backfill) {
+      while (matching.compareAndSet(false,true)) {
+        try {
+          formTeams(backfill);
+        } finally {
+          matching.set(false);
+        }
+        /* A player added while the flag was set might have completed a team. Players added after
+         * the count is read find the flag cleared and form the team themselves. */
+        if (waitingCount.get() < teamSize) {
+          break;
+        }
+      }
+    }
+
+    private void formTeams(boolean backfill) {
+      List<WaitingPlayer> team = new ArrayList<>(teamSize);
+      WaitingPlayer next;
+      while ((next = waiting.pollFirst()) != null) {
+        waitingCount.decrementAndGet();
+        if (!next.player.isOnline()) {
+          prunedCount.incrementAndGet();
+          continue;
+        }
+        team.add(next);
+        if (team.size() == teamSize) {
+          start(team,false);
+          team = new ArrayList<>(teamSize);
+        }
+      }
+      if (team.isEmpty()) {
+        return;
+      }
+      if (backfill && System.nanoTime() - team.get(0).since >= backfillNanos) {
+        start(team,true);
+        return;
+      }
+      // Not enough players yet, they go back in front of those who came later.
+      for (int index = team.size() - 1; index >= 0; --index) {
+        waiting.offerFirst(team.get(index));
+        waitingCount.incrementAndGet();
+      }
+    }
+
+    private void start(List<WaitingPlayer> team, boolean backfilled) {
+      final long now = System.nanoTime();
+      List<Player> players = new ArrayList<>(team.size());
+      long longestWait = 0;
+      for (WaitingPlayer waitingPlayer : team) {
+        final long wait = now - waitingPlayer.since;
+        totalWaitNanos.addAndGet(wait);
+        longestWait = Math.max(longestWait,wait);
+        players.add(waitingPlayer.player);
+      }
+      long max = maxWaitNanos.get();
+      while (longestWait > max && !maxWaitNanos.compareAndSet(max,longestWait)) {
+        max = maxWaitNanos.get();
+      }
+      matchedCount.addAndGet(team.size());
+      teamCount.incrementAndGet();
+      if (backfilled) {
+        backfilledTeamCount.incrementAndGet();
+        LOGGER.info("Backfilled a team of " + teamSize + " with " + team.size() + " players after "
+            + TimeUnit.NANOSECONDS.toMillis(longestWait) + " ms");
+      }
+      gameStarter.accept(players);
+    }
+
+    String getStatus() {
+      final long matched = matchedCount.get();
+      final long averageWait = matched == 0 ? 0 : totalWaitNanos.get() / matched;
+      return "Team size " + teamSize
+          + " waiting: " + waitingCount.get()
+          + " teams: " + teamCount.get()
+          + " backfilled: " + backfilledTeamCount.get()
+          + " pruned: " + prunedCount.get()
+          + " average wait: " + TimeUnit.NANOSECONDS.toMillis(averageWait) + " ms"
+          + " max wait: " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()) + " ms\n";
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package spaceinvaders.server.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs games on a fixed number of simulation threads.
+ *
+ * <p>Each thread runs a {@link GameShard}. A new game is assigned to the shard which has the
+ * fewest games, and stays there until it is over.
+ */
+class ShardedGameExecutor implements GameExecutor {
+  private final List<GameShard> shards;
+  private final ExecutorService shardExecutor;
+
+  /**
+   * @param shardCount number of simulation threads.
+   *
+   * @throws IllegalArgumentException if {@code shardCount} is not positive.
+   */
+  public ShardedGameExecutor(int shardCount) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException();
+    }
+    shards = new ArrayList<>(shardCount);
+    shardExecutor = Executors.newFixedThreadPool(shardCount);
+    for (int index = 0; index < shardCount; ++index) {
+      GameShard shard = new GameShard();
+      shards.add(shard);
+      shardExecutor.submit(shard);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> submit(Game game) {
+    if (game == null) {
+      throw new NullPointerException();
+    }
+    GameShard leastLoaded = shards.get(0);
+    for (GameShard shard : shards) {
+      if (shard.getLoad() < leastLoaded.getLoad()) {
+        leastLoaded = shard;
+      }
+    }
+    return leastLoaded.assign(game);
+  }
+
+  @Override
+  public void shutdown() {
+    for (GameShard shard : shards) {
+      shard.shutdown();
+    }
+    shardExecutor.shutdownNow();
+  }
+}
@@ -0,0 +1,24 @@
+package spaceinvaders.server.game;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import spaceinvaders.utility.ServiceSupervisor;
+
+/** Runs every game on a thread of its own. */
+class ThreadPerGameExecutor implements GameExecutor {
+  private final ExecutorService cachedThreadPool = Executors.newCachedThreadPool();
+
+  @Override
+  public CompletableFuture<Void> submit(Game game) {
+    if (game == null) {
+      throw new NullPointerException();
+    }
+    return ServiceSupervisor.submit(game,cachedThreadPool);
+  }
+
+  @Override
+  public void shutdown() {
+    cachedThreadPool.shutdownNow();
+  }
+}
@@ -38,7 +38,7 @@ public class ClassicWorldBuilder implements WorldBuilder {
     List<LogicEntity> invaders = new ArrayList<>(invaderRows * invaderCols);
     for (int row = 0; row < invaderRows; ++row) {
       for (int col = 0; col < invaderCols; ++col) {
-        invaders.add(new Invader(offsetX,offsetY));
+        invaders.add(new Invader(world.getStore(),row,col,offsetX,offsetY));
         offsetX += jumpX;
       }
       offsetX = witdthOffset;
@@ -72,7 +72,7 @@ public class ClassicWorldBuilder implements WorldBuilder {
     int offsetX = witdthOffset;
     List<LogicEntity> players = new ArrayList<>(teamSize);
     for (int player = 0; player < teamSize; ++player) {
-      players.add(new HumanPlayer(idList.get(player),offsetX,heightOffset));
+      players.add(new HumanPlayer(world.getStore(),idList.get(player),offsetX,heightOffset));
       offsetX += jumpX;
     }
     world.setEntities(PLAYER,players);
@@ -101,7 +101,7 @@ public class ClassicWorldBuilder implements WorldBuilder {
       LogicEntity player = it.next();
       int offsetX = player.getX() + widthOffset;
       for (int shield = 0; shield < shieldsPerPlayer; ++shield) {
-        shields.add(new Shield(offsetX,heightOffset));
+        shields.add(new Shield(world.getStore(),offsetX,heightOffset));
         offsetX += shieldW;
       }
     }
@@ -0,0 +1,122 @@
+package spaceinvaders.server.game.world;
+
+import java.util.Arrays;
+import spaceinvaders.game.EntityEnum;
+
+/**
+ * Keeps the state of the entities of a {@link World} in primitive arrays, one array for each field.
+ *
+ * <p>Every entity occupies a slot, which is an index into all the arrays. Slots of released
+ * entities are kept in a free-list and handed out again, so the arrays only grow when more
+ * entities are alive at the same time than ever before. Reading or updating an entity does not
+ * allocate.
+ *
+ * <p>The implementation is not thread-safe.
+ */
+class EntityStore {
+  private static final int INITIAL_CAPACITY = 128;
+  private static final int FREE = -1;
+  private static final EntityEnum[] TYPES = EntityEnum.values();
+
+  private int[] posX = new int[INITIAL_CAPACITY];
+  private int[] posY = new int[INITIAL_CAPACITY];
+  private int[] width = new int[INITIAL_CAPACITY];
+  private int[] height = new int[INITIAL_CAPACITY];
+  private int[] type = new int[INITIAL_CAPACITY];
+  private int[] id = new int[INITIAL_CAPACITY];
+  private int[] freeSlots = new int[INITIAL_CAPACITY];
+  private int freeCount = 0;
+  private int slotCount = 0;
+
+  /**
+   * Reserve a slot for a new entity.
+   *
+   * @return the slot of the entity.
+   *
+   * @throws NullPointerException if {@code entityType} is {@code null}.
+   */
+  public int allocate(EntityEnum entityType, int entityId, int entityX, int entityY,
+      int entityWidth, int entityHeight) {
+    if (entityType == null) {
+      throw new NullPointerException();
+    }
+    int slot;
+    if (freeCount > 0) {
+      slot = freeSlots[--freeCount];
+    } else {
+      if (slotCount == type.length) {
+        grow();
+      }
+      slot = slotCount++;
+    }
+    type[slot] = entityType.ordinal();
+    id[slot] = entityId;
+    posX[slot] = entityX;
+    posY[slot] = entityY;
+    width[slot] = entityWidth;
+    height[slot] = entityHeight;
+    return slot;
+  }
+
+  /**
+   * Give back the slot of an entity which is no longer part of the world.
+   *
+   * @throws IllegalStateException if the slot is not in use.
+   */
+  public void release(int slot) {
+    if (type[slot] == FREE) {
+      throw new IllegalStateException();
+    }
+    type[slot] = FREE;
+    freeSlots[freeCount++] = slot;
+  }
+
+  /** Number of slots which are in use. */
+  public int size() {
+    return slotCount - freeCount;
+  }
+
+  public EntityEnum getType(int slot) {
+    return TYPES[type[slot]];
+  }
+
+  public int getId(int slot) {
+    return id[slot];
+  }
+
+  public void setId(int slot, int entityId) {
+    id[slot] = entityId;
+  }
+
+  public int getX(int slot) {
+    return posX[slot];
+  }
+
+  public int getY(int slot) {
+    return posY[slot];
+  }
+
+  public void setPos(int slot, int entityX, int entityY) {
+    posX[slot] = entityX;
+    posY[slot] = entityY;
+  }
+
+  public int getWidth(int slot) {
+    return width[slot];
+  }
+
+  public int getHeight(int slot) {
+    return height[slot];
+  }
+
+  private void grow() {
+    final int capacity = type.length * 2;
+    posX = Arrays.copyOf(posX,capacity);
+    posY = Arrays.copyOf(posY,capacity);
+    width = Arrays.copyOf(width,capacity);
+    height = Arrays.copyOf(height,capacity);
+    type = Arrays.copyOf(type,capacity);
+    id = Arrays.copyOf(id,capacity);
+    freeSlots = Arrays.copyOf(freeSlots,capacity);
+  }
+}
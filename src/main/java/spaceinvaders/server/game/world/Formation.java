@@ -0,0 +1,191 @@
+package spaceinvaders.server.game.world;
+
+import java.util.List;
+
+/**
+ * The formation of the invaders.
+ *
+ * <p>Invaders are laid out on a grid, all invaders of a column share the same X coordinate and all
+ * invaders of a row share the same Y coordinate. The formation only moves as a whole, through
+ * {@link World#translate(spaceinvaders.game.EntityEnum,int,int) translate}.
+ *
+ * <p>The bounds of the formation are kept up to date incrementally. A translation shifts them, and
+ * they are searched again only when the last invader of a boundary column or row is destroyed.
+ * The lowest invader of each column is tracked in the same way, together with the set of columns
+ * which still have invaders, so that a random shooter can be picked in constant time. The bounds
+ * of an empty formation are undefined.
+ */
+public class Formation {
+  private final Invader[][] cells;
+  private final int[] columnX;
+  private final int[] rowY;
+  private final int[] columnCount;
+  private final int[] rowCount;
+  private final Invader[] lowest;
+  private final int[] liveColumns;
+  private final int[] livePosition;
+  private int liveCount = 0;
+  private int offsetX = 0;
+  private int offsetY = 0;
+  private int firstColumn;
+  private int lastColumn;
+  private int lastRow;
+  private int size;
+
+  /**
+   * @param invaders all invaders of the formation.
+   *
+   * @throws IllegalArgumentException if an entity is not an {@link Invader}.
+   */
+  Formation(List<LogicEntity> invaders) {
+    int rows = 0;
+    int cols = 0;
+    for (LogicEntity entity : invaders) {
+      if (!(entity instanceof Invader)) {
+        throw new IllegalArgumentException();
+      }
+      Invader invader = (Invader) entity;
+      rows = Math.max(rows,invader.getRow() + 1);
+      cols = Math.max(cols,invader.getColumn() + 1);
+    }
+    cells = new Invader[rows][cols];
+    columnX = new int[cols];
+    rowY = new int[rows];
+    columnCount = new int[cols];
+    rowCount = new int[rows];
+    lowest = new Invader[cols];
+    liveColumns = new int[cols];
+    livePosition = new int[cols];
+    for (LogicEntity entity : invaders) {
+      Invader invader = (Invader) entity;
+      final int row = invader.getRow();
+      final int col = invader.getColumn();
+      if (cells[row][col] != null) {
+        throw new IllegalArgumentException();
+      }
+      cells[row][col] = invader;
+      columnX[col] = invader.getX();
+      rowY[row] = invader.getY();
+      ++columnCount[col];
+      ++rowCount[row];
+      if (lowest[col] == null || lowest[col].getRow() < row) {
+        lowest[col] = invader;
+      }
+    }
+    for (int col = 0; col < cols; ++col) {
+      if (columnCount[col] > 0) {
+        livePosition[col] = liveCount;
+        liveColumns[liveCount++] = col;
+      }
+    }
+    size = invaders.size();
+    firstColumn = 0;
+    lastColumn = cols - 1;
+    lastRow = rows - 1;
+    shrink();
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** X coordinate of the leftmost invaders. */
+  public int getMinX() {
+    return columnX[firstColumn] + offsetX;
+  }
+
+  /** X coordinate of the rightmost invaders. */
+  public int getMaxX() {
+    return columnX[lastColumn] + offsetX;
+  }
+
+  /** Y coordinate of the lowest invaders. */
+  public int getMaxY() {
+    return rowY[lastRow] + offsetY;
+  }
+
+  /** Number of columns, including the ones which have been wiped out. */
+  public int getColumnCount() {
+    return columnX.length;
+  }
+
+  /** Number of columns which still have invaders. */
+  public int getLiveColumnCount() {
+    return liveCount;
+  }
+
+  /**
+   * Columns which still have invaders are numbered from 0 to
+   * {@link #getLiveColumnCount() getLiveColumnCount} - 1. The numbering changes when a column is
+   * wiped out.
+   *
+   * @return the column found at {@code index} among the columns which still have invaders.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   */
+  public int getLiveColumn(int index) {
+    if (index < 0 || index >= liveCount) {
+      throw new IndexOutOfBoundsException();
+    }
+    return liveColumns[index];
+  }
+
+  /**
+   * @return the lowest invader of {@code column}, or {@code null} if the column is empty.
+   *
+   * @throws IndexOutOfBoundsException if {@code column} is out of range.
+   */
+  public LogicEntity getLowest(int column) {
+    return lowest[column];
+  }
+
+  /** Shift the bounds after all invaders have been moved by the same offset. */
+  void translate(int offsetX, int offsetY) {
+    this.offsetX += offsetX;
+    this.offsetY += offsetY;
+  }
+
+  /** Take out an invader which has been removed from the world. */
+  void remove(Invader invader) {
+    final int row = invader.getRow();
+    final int col = invader.getColumn();
+    if (cells[row][col] != invader) {
+      // This should never happen.
+      throw new AssertionError();
+    }
+    cells[row][col] = null;
+    --columnCount[col];
+    --rowCount[row];
+    --size;
+    if (lowest[col] == invader) {
+      Invader next = null;
+      for (int above = row - 1; above >= 0 && next == null; --above) {
+        next = cells[above][col];
+      }
+      lowest[col] = next;
+    }
+    if (columnCount[col] == 0) {
+      /* Move the last live column in place of the wiped out one. */
+      final int last = liveColumns[--liveCount];
+      liveColumns[livePosition[col]] = last;
+      livePosition[last] = livePosition[col];
+    }
+    shrink();
+  }
+
+  /** Move the boundary columns and row inwards, past the ones which are empty. */
+  private void shrink() {
+    if (size == 0) {
+      return;
+    }
+    while (columnCount[firstColumn] == 0) {
+      ++firstColumn;
+    }
+    while (columnCount[lastColumn] == 0) {
+      --lastColumn;
+    }
+    while (rowCount[lastRow] == 0) {
+      --lastRow;
+    }
+  }
+}
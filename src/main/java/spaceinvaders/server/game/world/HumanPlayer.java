@@ -7,12 +7,13 @@ import spaceinvaders.game.GameConfig;
 /** Human player character. */
 public class HumanPlayer extends LogicEntity {
   /**
+   * @param store the store holding the state of the entity.
    * @param id player ID.
    * @param posX X coordinate.
    * @param posY Y coordinate.
    */
-  public HumanPlayer(int id, int posX, int posY) {
-    super(PLAYER,posX,posY,
+  HumanPlayer(EntityStore store, int id, int posX, int posY) {
+    super(store,PLAYER,posX,posY,
           GameConfig.getInstance().player().getWidth(),
           GameConfig.getInstance().player().getHeight());
     setId(id);
@@ -6,13 +6,34 @@ import spaceinvaders.game.GameConfig;
 
 /** Invader character. */
 public class Invader extends LogicEntity {
+  private final int row;
+  private final int column;
+
   /**
+   * @param store the store holding the state of the entity.
+   * @param row the row of the invader in the {@link Formation}.
+   * @param column the column of the invader in the {@link Formation}.
    * @param posX X coordinate.
    * @param posY Y coordinate.
+   *
+   * @throws IllegalArgumentException if {@code row} or {@code column} is negative.
    */
-  public Invader(int posX, int posY) {
-    super(INVADER,posX,posY,
+  Invader(EntityStore store, int row, int column, int posX, int posY) {
+    super(store,INVADER,posX,posY,
           GameConfig.getInstance().invader().getWidth(),
           GameConfig.getInstance().invader().getHeight());
+    if (row < 0 || column < 0) {
+      throw new IllegalArgumentException();
+    }
+    this.row = row;
+    this.column = column;
+  }
+
+  public int getRow() {
+    return row;
+  }
+
+  public int getColumn() {
+    return column;
   }
 }
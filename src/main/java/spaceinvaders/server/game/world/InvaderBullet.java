@@ -7,11 +7,12 @@ import spaceinvaders.game.GameConfig;
 /** Bullet shot by an invader. */
 public class InvaderBullet extends LogicEntity {
   /**
+   * @param store the store holding the state of the entity.
    * @param posX X coordinate.
    * @param posY Y coordinate.
    */
-  public InvaderBullet(int posX, int posY) {
-    super(INVADER_BULLET,posX,posY,
+  InvaderBullet(EntityStore store, int posX, int posY) {
+    super(store,INVADER_BULLET,posX,posY,
         GameConfig.getInstance().invaderBullet().getWidth(),
         GameConfig.getInstance().invaderBullet().getHeight());
   }
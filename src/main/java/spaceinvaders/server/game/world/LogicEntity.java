@@ -3,12 +3,21 @@ package spaceinvaders.server.game.world;
 import spaceinvaders.game.Entity;
 import spaceinvaders.game.EntityEnum;
 
+/**
+ * Handle to an entity of the game world.
+ *
+ * <p>The state of the entity is kept in an {@link EntityStore}, the handle only knows the slot of
+ * the entity in the store.
+ */
 public class LogicEntity {
-  private final Entity body;
-  private final Integer width;
-  private final Integer height;
+  private final EntityStore store;
+  private final int slot;
+  private SpatialGrid grid;
+  private int queryStamp;
+  private int index = -1;
 
   /**
+   * @param store the store holding the state of the entity.
    * @param type type of the entity.
    * @param posX the X coordinate.
    * @param posY the Y coordinate.
@@ -17,18 +26,27 @@ public class LogicEntity {
    *
    * @throws NullPointerException if an argument is {@code null}.
    */
-  protected LogicEntity(EntityEnum type, int posX, int posY, int width, int height) {
-    if (type == null) {
+  protected LogicEntity(EntityStore store, EntityEnum type, int posX, int posY, int width,
+      int height) {
+    if (store == null || type == null) {
       throw new NullPointerException();
     }
-    this.body = new Entity(type,posX,posY); 
-    this.width = width;
-    this.height = height;
+    this.store = store;
+    slot = store.allocate(type,System.identityHashCode(this),posX,posY,width,height);
   }
 
-  /** Move the entity to a new position. */
+  /**
+   * Move the entity to a new position.
+   *
+   * <p>If the entity is part of a {@link World}, its place in the spatial grid is updated too.
+   */
   public void move(int newX, int newY) {
-    body.setPos(newX,newY);
+    final int oldX = getX();
+    final int oldY = getY();
+    store.setPos(slot,newX,newY);
+    if (grid != null) {
+      grid.move(this,oldX,oldY);
+    }
   }
 
   /**
@@ -37,36 +55,79 @@ public class LogicEntity {
    * @return true if entities collide, false otherwise.
    */
   public boolean collides(LogicEntity entity) {
-    return getX() < entity.getX() + entity.width
-      && entity.getX() < getX() + width
-      && getY() < entity.getY() + entity.height
-      && entity.getY() < getY() + height;
+    final int posX = getX();
+    final int posY = getY();
+    final int otherX = entity.getX();
+    final int otherY = entity.getY();
+    return posX < otherX + entity.getWidth()
+      && otherX < posX + getWidth()
+      && posY < otherY + entity.getHeight()
+      && otherY < posY + getHeight();
   }
 
   /**
-   * @return an {@link Entity} representation, which is the base level of representation.
+   * @return a new {@link Entity} representation, which is the base level of representation.
    */
   public Entity getBase() {
-    return body;
+    return new Entity(getType(),getId(),getX(),getY());
   }
 
   public EntityEnum getType() {
-    return body.getType();
+    return store.getType(slot);
   }
 
   public int getX() {
-    return body.getX();
+    return store.getX(slot);
   }
 
   public int getY() {
-    return body.getY();
+    return store.getY(slot);
+  }
+
+  public int getWidth() {
+    return store.getWidth(slot);
+  }
+
+  public int getHeight() {
+    return store.getHeight(slot);
   }
 
   public int getId() {
-    return body.getId();
+    return store.getId(slot);
   }
 
   protected void setId(int id) {
-    body.setId(id);
+    store.setId(slot,id);
+  }
+
+  EntityStore getStore() {
+    return store;
+  }
+
+  /** Give back the slot of this entity. The entity must not be used afterwards. */
+  void release() {
+    store.release(slot);
+  }
+
+  /** Set the grid which tracks this entity, or {@code null} if it is not tracked. */
+  void setGrid(SpatialGrid grid) {
+    this.grid = grid;
+  }
+
+  /** Position of the entity in the list of its type, or -1 if it is not part of a world. */
+  int getIndex() {
+    return index;
+  }
+
+  void setIndex(int index) {
+    this.index = index;
+  }
+
+  int getQueryStamp() {
+    return queryStamp;
+  }
+
+  void setQueryStamp(int queryStamp) {
+    this.queryStamp = queryStamp;
   }
 }
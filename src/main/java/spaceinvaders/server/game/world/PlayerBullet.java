@@ -6,15 +6,16 @@ import spaceinvaders.game.GameConfig;
 
 /** Bullet shot by a player. */
 public class PlayerBullet extends LogicEntity {
-  private final Integer shooterId;
+  private final int shooterId;
 
   /**
+   * @param store the store holding the state of the entity.
    * @param shooterId id of the player who shot the bullet.
    * @param posX X coordinate.
    * @param posY Y coordinate.
    */
-  public PlayerBullet(int shooterId, int posX, int posY) {
-    super(PLAYER_BULLET,posX,posY,
+  PlayerBullet(EntityStore store, int shooterId, int posX, int posY) {
+    super(store,PLAYER_BULLET,posX,posY,
           GameConfig.getInstance().playerBullet().getWidth(),
           GameConfig.getInstance().playerBullet().getHeight());
     this.shooterId = shooterId;
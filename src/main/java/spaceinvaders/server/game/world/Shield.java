@@ -7,11 +7,12 @@ import spaceinvaders.game.GameConfig;
 /** A shield protecting the player. */
 public class Shield extends LogicEntity {
   /**
+   * @param store the store holding the state of the entity.
    * @param posX X coordinate.
    * @param posY Y coordinate.
    */
-  public Shield(int posX, int posY) {
-    super(SHIELD,posX,posY,
+  Shield(EntityStore store, int posX, int posY) {
+    super(store,SHIELD,posX,posY,
           GameConfig.getInstance().shield().getWidth(),
           GameConfig.getInstance().shield().getHeight());
   }
@@ -0,0 +1,130 @@
+package spaceinvaders.server.game.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform grid used to find entities which are close to each other.
+ *
+ * <p>The grid covers the game frame. Each entity is registered in every cell overlapped by its
+ * bounding box. Coordinates outside of the frame are clamped to the border cells, so entities which
+ * have left the frame are still tracked.
+ */
+class SpatialGrid {
+  private final List<List<LogicEntity>> cells;
+  private final int cellSize;
+  private final int cols;
+  private final int rows;
+  private int queryStamp = 0;
+
+  /**
+   * @param width width of the covered area.
+   * @param height height of the covered area.
+   * @param cellSize length of the side of a cell.
+   *
+   * @throws IllegalArgumentException if an argument is not positive.
+   */
+  public SpatialGrid(int width, int height, int cellSize) {
+    if (width <= 0 || height <= 0 || cellSize <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.cellSize = cellSize;
+    cols = (width + cellSize - 1) / cellSize;
+    rows = (height + cellSize - 1) / cellSize;
+    cells = new ArrayList<>(cols * rows);
+    for (int index = 0; index < cols * rows; ++index) {
+      cells.add(new ArrayList<LogicEntity>());
+    }
+  }
+
+  /** Register {@code entity} at its current position. */
+  public void insert(LogicEntity entity) {
+    addToCells(entity,entity.getX(),entity.getY());
+  }
+
+  /** Unregister {@code entity}, which must still be at the position it was registered at. */
+  public void remove(LogicEntity entity) {
+    removeFromCells(entity,entity.getX(),entity.getY());
+  }
+
+  /** Clear the grid. */
+  public void clear() {
+    for (List<LogicEntity> cell : cells) {
+      cell.clear();
+    }
+  }
+
+  /**
+   * Update the cells of an entity which has moved.
+   *
+   * @param entity the entity, already at its new position.
+   * @param oldX the X coordinate before the move.
+   * @param oldY the Y coordinate before the move.
+   */
+  public void move(LogicEntity entity, int oldX, int oldY) {
+    final int newX = entity.getX();
+    final int newY = entity.getY();
+    if (col(oldX) == col(newX)
+        && col(oldX + entity.getWidth() - 1) == col(newX + entity.getWidth() - 1)
+        && row(oldY) == row(newY)
+        && row(oldY + entity.getHeight() - 1) == row(newY + entity.getHeight() - 1)) {
+      return;
+    }
+    removeFromCells(entity,oldX,oldY);
+    addToCells(entity,newX,newY);
+  }
+
+  /**
+   * Find all registered entities which collide with {@code entity}.
+   *
+   * @param entity the entity to check against. It does not have to be registered.
+   * @param collisions the colliding entities are added here.
+   */
+  public void findCollisions(LogicEntity entity, List<LogicEntity> collisions) {
+    ++queryStamp;
+    final int colEnd = col(entity.getX() + entity.getWidth() - 1);
+    final int rowEnd = row(entity.getY() + entity.getHeight() - 1);
+    for (int row = row(entity.getY()); row <= rowEnd; ++row) {
+      for (int col = col(entity.getX()); col <= colEnd; ++col) {
+        List<LogicEntity> cell = cells.get(row * cols + col);
+        for (int index = 0; index < cell.size(); ++index) {
+          LogicEntity candidate = cell.get(index);
+          if (candidate.getQueryStamp() != queryStamp) {
+            candidate.setQueryStamp(queryStamp);
+            if (candidate != entity && entity.collides(candidate)) {
+              collisions.add(candidate);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void addToCells(LogicEntity entity, int posX, int posY) {
+    final int colEnd = col(posX + entity.getWidth() - 1);
+    final int rowEnd = row(posY + entity.getHeight() - 1);
+    for (int row = row(posY); row <= rowEnd; ++row) {
+      for (int col = col(posX); col <= colEnd; ++col) {
+        cells.get(row * cols + col).add(entity);
+      }
+    }
+  }
+
+  private void removeFromCells(LogicEntity entity, int posX, int posY) {
+    final int colEnd = col(posX + entity.getWidth() - 1);
+    final int rowEnd = row(posY + entity.getHeight() - 1);
+    for (int row = row(posY); row <= rowEnd; ++row) {
+      for (int col = col(posX); col <= colEnd; ++col) {
+        cells.get(row * cols + col).remove(entity);
+      }
+    }
+  }
+
+  private int col(int posX) {
+    return Math.max(0,Math.min(cols - 1,Math.floorDiv(posX,cellSize)));
+  }
+
+  private int row(int posY) {
+    return Math.max(0,Math.min(rows - 1,Math.floorDiv(posY,cellSize)));
+  }
+}
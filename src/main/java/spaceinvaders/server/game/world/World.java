@@ -1,32 +1,91 @@
 package spaceinvaders.server.game.world;
 
+import static spaceinvaders.game.EntityEnum.INVADER;
 import static spaceinvaders.game.EntityEnum.INVADER_BULLET;
+import static spaceinvaders.game.EntityEnum.PLAYER;
 import static spaceinvaders.game.EntityEnum.PLAYER_BULLET;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import spaceinvaders.game.Entity;
 import spaceinvaders.game.EntityEnum;
+import spaceinvaders.game.GameConfig;
+import spaceinvaders.utility.IntHashMap;
 
-/** Contains all characters that interact in the game. */
+/**
+ * Contains all characters that interact in the game.
+ *
+ * <p>The state of the entities is kept in an {@link EntityStore}, the lists of the world only hold
+ * handles to it. Methods taking an index instead of using iterators are provided for hot loops,
+ * which should not allocate. Entities are also indexed by id. Removing an entity moves the last
+ * entity of the same type into its place, so removals take constant time but do not keep the
+ * order of the entities.
+ *
+ * <p>The invaders are also tracked as a {@link Formation}. They must only be moved with
+ * {@link #translate(EntityEnum,int,int) translate}.
+ *
+ * <p>Ids must be unique. The ids of players are kept as they are, because the clients know them.
+ * Other entities may get a new id when they are added, if their id is already taken.
+ *
+ * <p>Besides the lists of entities, the world keeps a {@link SpatialGrid} for each type of
+ * entity, which is used to find collisions without checking all pairs of entities.
+ */
 public class World implements WorldPlan {
-  private Map<EntityEnum,List<LogicEntity>> entityMap = new HashMap<>();
+  private static final int GRID_CELL_SIZE = 64;
+
+  private final GameConfig config = GameConfig.getInstance();
+  private final EntityStore store = new EntityStore();
+  private Map<EntityEnum,List<LogicEntity>> entityMap = new EnumMap<>(EntityEnum.class);
+  private Map<EntityEnum,SpatialGrid> gridMap = new EnumMap<>(EntityEnum.class);
+  private final IntHashMap<LogicEntity> idMap = new IntHashMap<>();
+  private Formation formation = new Formation(new ArrayList<LogicEntity>());
+
+  /** Construct an empty world. */
+  public World() {
+    for (EntityEnum type : EntityEnum.values()) {
+      gridMap.put(type,new SpatialGrid(config.frame().getWidth(),config.frame().getHeight(),
+            GRID_CELL_SIZE));
+    }
+  }
 
   /**
+   * Entities previously set for {@code type} are removed from the world.
+   *
    * @throws NullPointerException if an argument is {@code null}.
+   * @throws IllegalArgumentException if an entity was not created in the store of this world, or
+   *     if two players have the same id.
    */
   @Override
   public void setEntities(EntityEnum type, List<LogicEntity> entities) {
     if (type == null || entities == null) {
       throw new NullPointerException();
     }
-    entityMap.put(type,entities);
+    for (LogicEntity entity : entities) {
+      if (entity.getStore() != store) {
+        throw new IllegalArgumentException();
+      }
+    }
+    Formation newFormation = (type == INVADER ? new Formation(entities) : formation);
+    List<LogicEntity> old = entityMap.put(type,entities);
+    if (old != null) {
+      for (LogicEntity entity : old) {
+        untrack(entity);
+        entity.release();
+      }
+    }
+    formation = newFormation;
+    for (int index = 0; index < entities.size(); ++index) {
+      track(entities.get(index),index);
+    }
   }
 
   /**
+   * Removing an entity through the iterator removes it from the world.
+   *
    * @return an iterator or {@code null} if the specified entity type could not be found.
    *
    * @throws NullPointerException if argument is {@code null}.
@@ -37,7 +96,7 @@ public class World implements WorldPlan {
       throw new NullPointerException();
     }
     List<LogicEntity> list = entityMap.get(type);
-    return (list == null ? null : list.iterator());
+    return (list == null ? null : new WorldIterator(list));
   }
 
   /**
@@ -53,6 +112,132 @@ public class World implements WorldPlan {
     return (list == null ? 0 : list.size());
   }
 
+  /**
+   * Returns the entity of a given {@code type} found at {@code index}.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   * @throws NullPointerException if {@code type} is {@code null}.
+   */
+  public LogicEntity get(EntityEnum type, int index) {
+    if (type == null) {
+      throw new NullPointerException();
+    }
+    List<LogicEntity> list = entityMap.get(type);
+    if (list == null) {
+      throw new IndexOutOfBoundsException();
+    }
+    return list.get(index);
+  }
+
+  /**
+   * Move all entities of a given {@code type} by the same offset.
+   *
+   * @throws NullPointerException if {@code type} is {@code null}.
+   */
+  public void translate(EntityEnum type, int offsetX, int offsetY) {
+    if (type == null) {
+      throw new NullPointerException();
+    }
+    List<LogicEntity> list = entityMap.get(type);
+    if (list == null) {
+      return;
+    }
+    for (int index = 0; index < list.size(); ++index) {
+      LogicEntity entity = list.get(index);
+      entity.move(entity.getX() + offsetX,entity.getY() + offsetY);
+    }
+    if (type == INVADER) {
+      formation.translate(offsetX,offsetY);
+    }
+  }
+
+  /** Get the formation of the invaders. */
+  public Formation getFormation() {
+    return formation;
+  }
+
+  /**
+   * Find all entities of a given {@code type} which collide with {@code entity}.
+   *
+   * <p>Only the entities close to {@code entity} are checked.
+   *
+   * @param entity the entity to check against.
+   * @param type the type of the entities which are checked.
+   * @param collisions list which is cleared and filled with the colliding entities.
+   *
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public void findCollisions(LogicEntity entity, EntityEnum type, List<LogicEntity> collisions) {
+    if (entity == null || type == null || collisions == null) {
+      throw new NullPointerException();
+    }
+    collisions.clear();
+    gridMap.get(type).findCollisions(entity,collisions);
+  }
+
+  /**
+   * Find an entity by its id.
+   *
+   * @return the entity or {@code null} if there is no entity with this {@code id}.
+   */
+  public LogicEntity getById(int id) {
+    return idMap.get(id);
+  }
+
+  /**
+   * Remove an entity from the world.
+   *
+   * @return true if the entity was found, false otherwise.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public boolean remove(LogicEntity entity) {
+    if (entity == null) {
+      throw new NullPointerException();
+    }
+    if (entity.getStore() != store || entity.getIndex() < 0) {
+      return false;
+    }
+    detach(entityMap.get(entity.getType()),entity.getIndex());
+    return true;
+  }
+
+  /**
+   * Remove the entity with the given {@code id} from the world.
+   *
+   * @return true if the entity was found, false otherwise.
+   */
+  public boolean removeById(int id) {
+    LogicEntity entity = idMap.get(id);
+    if (entity == null) {
+      return false;
+    }
+    detach(entityMap.get(entity.getType()),entity.getIndex());
+    return true;
+  }
+
+  /**
+   * Remove the entity of a given {@code type} found at {@code index}.
+   *
+   * <p>The last entity of the same type takes its place.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is out of range.
+   * @throws NullPointerException if {@code type} is {@code null}.
+   */
+  public void remove(EntityEnum type, int index) {
+    if (type == null) {
+      throw new NullPointerException();
+    }
+    List<LogicEntity> list = entityMap.get(type);
+    if (list == null) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (index < 0 || index >= list.size()) {
+      throw new IndexOutOfBoundsException();
+    }
+    detach(list,index);
+  }
+
   /**
    * Create an {@link spaceinvaders.server.game.world.InvaderBullet}.
    *
@@ -67,7 +252,8 @@ public class World implements WorldPlan {
       // This should never happen.
       throw new AssertionError();
     }
-    LogicEntity bullet = new InvaderBullet(bulletX,bulletY);
+    LogicEntity bullet = new InvaderBullet(store,bulletX,bulletY);
+    track(bullet,list.size());
     list.add(bullet);
     return bullet;
   }
@@ -87,23 +273,121 @@ public class World implements WorldPlan {
       // This should never happen.
       throw new AssertionError();
     }
-    LogicEntity bullet = new PlayerBullet(shooterId,bulletX,bulletY);
+    LogicEntity bullet = new PlayerBullet(store,shooterId,bulletX,bulletY);
+    track(bullet,list.size());
     list.add(bullet);
     return bullet;
   }
 
+  @Override
+  public EntityStore getStore() {
+    return store;
+  }
+
   /**
    * Get all entities.
    *
-   * @return a list of all currently active entities.
+   * @return a list of snapshots of all currently active entities.
    */
   public List<Entity> getEntities() {
-    List<Entity> entities = new ArrayList<>();
+    List<Entity> entities = new ArrayList<>(store.size());
     for (List<LogicEntity> value : entityMap.values()) {
       for (LogicEntity it : value) {
         entities.add(it.getBase());
       }
     }
     return entities;
-  } 
+  }
+
+  /**
+   * Start tracking an entity in the spatial grid and in the id index.
+   *
+   * @param index the position of the entity in the list of its type.
+   */
+  private void track(LogicEntity entity, int index) {
+    SpatialGrid grid = gridMap.get(entity.getType());
+    grid.insert(entity);
+    entity.setGrid(grid);
+    entity.setIndex(index);
+    indexId(entity);
+  }
+
+  /** Stop tracking an entity. */
+  private void untrack(LogicEntity entity) {
+    gridMap.get(entity.getType()).remove(entity);
+    entity.setGrid(null);
+    entity.setIndex(-1);
+    idMap.remove(entity.getId());
+  }
+
+  /** Remove the entity at {@code index} by moving the last entity of the list into its place. */
+  private void detach(List<LogicEntity> list, int index) {
+    LogicEntity entity = list.get(index);
+    LogicEntity last = list.remove(list.size() - 1);
+    if (last != entity) {
+      list.set(index,last);
+      last.setIndex(index);
+    }
+    untrack(entity);
+    if (entity.getType() == INVADER) {
+      formation.remove((Invader) entity);
+    }
+    entity.release();
+  }
+
+  /** Add an entity to the id index, changing its id if it is already taken. */
+  private void indexId(LogicEntity entity) {
+    LogicEntity holder = idMap.put(entity.getId(),entity);
+    if (holder == null) {
+      return;
+    }
+    LogicEntity moved = entity;
+    if (entity.getType() == PLAYER) {
+      if (holder.getType() == PLAYER) {
+        throw new IllegalArgumentException();
+      }
+      moved = holder;
+    } else {
+      idMap.put(holder.getId(),holder);
+    }
+    do {
+      moved.setId(moved.getId() + 1);
+    } while (idMap.containsKey(moved.getId()));
+    idMap.put(moved.getId(),moved);
+  }
+
+  /** Iterator which keeps the world consistent when entities are removed. */
+  private class WorldIterator implements Iterator<LogicEntity> {
+    private final List<LogicEntity> list;
+    private int cursor = 0;
+    private boolean removable = false;
+
+    public WorldIterator(List<LogicEntity> list) {
+      this.list = list;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor < list.size();
+    }
+
+    @Override
+    public LogicEntity next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      removable = true;
+      return list.get(cursor++);
+    }
+
+    /** The last entity takes the place of the removed one, and it is returned next. */
+    @Override
+    public void remove() {
+      if (!removable) {
+        throw new IllegalStateException();
+      }
+      removable = false;
+      detach(list,--cursor);
+    }
+  }
 }
@@ -15,4 +15,11 @@ interface WorldPlan {
    * Get an iterator for all entities of a given {@code type}.
    */
   public Iterator<LogicEntity> getIterator(EntityEnum type);
+
+  /**
+   * Get the store which keeps the state of the entities of the world.
+   *
+   * <p>Entities passed to {@link #setEntities(EntityEnum,List) setEntities} must be created in it.
+   */
+  public EntityStore getStore();
 }
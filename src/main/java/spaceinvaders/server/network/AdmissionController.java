@@ -0,0 +1,58 @@
+package spaceinvaders.server.network;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of live connections.
+ *
+ * <p>Live connections are counted as they are admitted and as they close, so deciding whether one
+ * more connection fits never has to look at the other connections.
+ */
+class AdmissionController {
+  private final int maxConnections;
+  private final AtomicInteger liveConnections = new AtomicInteger();
+
+  /**
+   * @param maxConnections maximum number of live connections.
+   *
+   * @throws IllegalArgumentException if {@code maxConnections} is not positive.
+   */
+  public AdmissionController(int maxConnections) {
+    if (maxConnections < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.maxConnections = maxConnections;
+  }
+
+  /**
+   * Take a slot for a new connection, if there is one left.
+   *
+   * @return true if the connection is admitted, false if the server is full.
+   */
+  public boolean tryAcquire() {
+    int live = liveConnections.get();
+    while (live < maxConnections) {
+      if (liveConnections.compareAndSet(live,live + 1)) {
+        return true;
+      }
+      live = liveConnections.get();
+    }
+    return false;
+  }
+
+  /** Give back the slot of a connection which has closed. */
+  public void release() {
+    if (liveConnections.decrementAndGet() < 0) {
+      // This should never happen.
+      throw new AssertionError();
+    }
+  }
+
+  public int getLiveConnections() {
+    return liveConnections.get();
+  }
+
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+}
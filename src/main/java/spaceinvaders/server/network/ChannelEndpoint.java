@@ -0,0 +1,257 @@
+package spaceinvaders.server.network;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.logging.Level.SEVERE;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * The non-blocking side of a TCP connection, driven by a {@link SelectorLoop}.
+ *
+ * <p>Incoming data is split into lines, which are passed to a {@link Listener}. Outgoing data is
+ * written straight to the channel for as long as the channel accepts it. Whatever remains is kept
+ * and written by the loop as soon as the channel becomes writable again.
+ */
+class ChannelEndpoint {
+  private static final Logger LOGGER = Logger.getLogger(ChannelEndpoint.class.getName());
+  private static final int READ_BUFFER_SIZE = 4096;
+  private static final int MAX_LINE_SIZE = 64 * 1024;
+  private static final int MAX_PENDING_SIZE = 1024 * 1024;
+
+  /** Receives the events of an endpoint. */
+  interface Listener {
+    /** A complete line, without the line terminator, has been read by the loop thread. */
+    void lineReceived(String line);
+
+    /**
+     * The endpoint has been closed. Called exactly once, from whichever thread closed it.
+     *
+     * @param cause the reason of closing, or {@code null} if it has been closed locally.
+     */
+    void closed(IOException cause);
+  }
+
+  private final SocketChannel channel;
+  private final SelectorLoop loop;
+  private final Listener listener;
+  private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+  private final OutputStream outputStream = new EndpointOutputStream();
+  private byte[] line = new byte[256];
+  private int lineLength;
+  private ByteBuffer pending = ByteBuffer.allocate(0);
+  private SelectionKey key;
+  private boolean closed;
+
+  /**
+   * @param channel an open channel, which is switched to non-blocking mode.
+   * @param loop the loop which drives the endpoint.
+   * @param listener receives incoming lines.
+   *
+   * @throws IOException if the channel cannot be switched to non-blocking mode.
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public ChannelEndpoint(SocketChannel channel, SelectorLoop loop, Listener listener)
+      throws IOException {
+    if (channel == null || loop == null || listener == null) {
+      throw new NullPointerException();
+    }
+    this.channel = channel;
+    this.loop = loop;
+    this.listener = listener;
+    channel.configureBlocking(false);
+  }
+
+  /** Register the endpoint with its loop, which begins reading. */
+  public void start() {
+    loop.update(this);
+  }
+
+  /**
+   * A stream for writing to the channel.
+   *
+   * <p>Writing never blocks. If the client reads too slowly and the unsent data grows too large,
+   * the endpoint is closed and an {@link IOException} is thrown.
+   */
+  public OutputStream getOutputStream() {
+    return outputStream;
+  }
+
+  /**
+   * Close the channel and notify the listener, unless the endpoint is already closed.
+   *
+   * @param cause the reason of closing, or {@code null} if it is closed locally.
+   */
+  public void close(IOException cause) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      pending = ByteBuffer.allocate(0);
+    }
+    try {
+      channel.close();
+    } catch (IOException ioException) {
+      LOGGER.log(SEVERE,ioException.toString(),ioException);
+    }
+    listener.closed(cause);
+  }
+
+  /** Register the channel or update the operations of interest. Called by the loop. */
+  void updateRegistration(Selector selector) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      final int ops = pending.position() > 0
+          ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+          : SelectionKey.OP_READ;
+      try {
+        if (key == null) {
+          key = channel.register(selector,ops,this);
+        } else if (key.isValid()) {
+          key.interestOps(ops);
+        }
+        return;
+      } catch (ClosedChannelException closedException) {
+        // The channel has been closed before being registered.
+      }
+    }
+    close(new EOFException());
+  }
+
+  /** Handle the operations for which the channel is ready. Called by the loop. */
+  void handle(SelectionKey key) {
+    if (key.isValid() && key.isReadable()) {
+      read();
+    }
+    if (key.isValid() && key.isWritable()) {
+      writePending();
+    }
+  }
+
+  private void read() {
+    int count = 0;
+    try {
+      count = channel.read(readBuffer);
+    } catch (IOException ioException) {
+      close(ioException);
+      return;
+    }
+    if (count < 0) {
+      close(new EOFException());
+      return;
+    }
+    readBuffer.flip();
+    while (readBuffer.hasRemaining()) {
+      final byte data = readBuffer.get();
+      if (data == '\n') {
+        final int length = lineLength > 0 && line[lineLength - 1] == '\r'
+            ? lineLength - 1
+            : lineLength;
+        lineLength = 0;
+        listener.lineReceived(new String(line,0,length,UTF_8));
+      } else {
+        if (lineLength == line.length) {
+          if (lineLength == MAX_LINE_SIZE) {
+            close(new IOException("Line too long"));
+            return;
+          }
+          line = Arrays.copyOf(line,Math.min(2 * lineLength,MAX_LINE_SIZE));
+        }
+        line[lineLength++] = data;
+      }
+    }
+    readBuffer.clear();
+  }
+
+  private void writePending() {
+    IOException failure = null;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      pending.flip();
+      try {
+        channel.write(pending);
+        pending.compact();
+        if (pending.position() == 0) {
+          key.interestOps(SelectionKey.OP_READ);
+        }
+        return;
+      } catch (IOException ioException) {
+        failure = ioException;
+      }
+    }
+    close(failure);
+  }
+
+  private void write(byte[] data, int offset, int length) throws IOException {
+    IOException failure = null;
+    synchronized (this) {
+      if (closed) {
+        throw new ClosedChannelException();
+      }
+      try {
+        queue(ByteBuffer.wrap(data,offset,length));
+        return;
+      } catch (IOException ioException) {
+        failure = ioException;
+      }
+    }
+    close(failure);
+    throw failure;
+  }
+
+  /** Write as much as the channel accepts and keep the rest. Called while holding the lock. */
+  private void queue(ByteBuffer source) throws IOException {
+    if (pending.position() == 0) {
+      channel.write(source);
+      if (!source.hasRemaining()) {
+        return;
+      }
+      // Let the loop finish writing.
+      loop.update(this);
+    }
+    final int size = pending.position() + source.remaining();
+    if (size > MAX_PENDING_SIZE) {
+      throw new IOException("Client does not read fast enough");
+    }
+    if (size > pending.capacity()) {
+      final ByteBuffer grown =
+          ByteBuffer.allocate(Math.min(Math.max(2 * pending.capacity(),size),MAX_PENDING_SIZE));
+      pending.flip();
+      grown.put(pending);
+      pending = grown;
+    }
+    pending.put(source);
+  }
+
+  /** Writes through the endpoint. */
+  private class EndpointOutputStream extends OutputStream {
+    @Override
+    public void write(int data) throws IOException {
+      ChannelEndpoint.this.write(new byte[] {(byte) data},0,1);
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+      if (data == null) {
+        throw new NullPointerException();
+      }
+      if (offset < 0 || length < 0 || length > data.length - offset) {
+        throw new IndexOutOfBoundsException();
+      }
+      ChannelEndpoint.this.write(data,offset,length);
+    }
+  }
+}
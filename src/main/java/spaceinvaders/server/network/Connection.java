@@ -1,96 +1,182 @@
 package spaceinvaders.server.network;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.logging.Level.SEVERE;
 
 import com.google.gson.JsonSyntaxException;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.DatagramPacket;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TransferQueue;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 import spaceinvaders.command.Command;
 import spaceinvaders.command.CommandDirector;
 import spaceinvaders.command.server.ServerCommandBuilder;
+import spaceinvaders.command.server.ServerCommandDecoder;
 import spaceinvaders.exceptions.CommandNotFoundException;
+import spaceinvaders.server.network.senderchain.EncodedFrame;
 import spaceinvaders.server.network.senderchain.SenderChain;
 import spaceinvaders.server.network.senderchain.TcpChain;
 import spaceinvaders.server.network.senderchain.UdpChain;
+import spaceinvaders.server.network.udp.DatagramRouter;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
 
-/** Handles the connection with a client. */
+/**
+ * Handles the connection with a client.
+ *
+ * <p>A connection either blocks a thread of its own while reading from the socket, or it is driven
+ * by a {@link SelectorLoop}, which reads from many connections on a single thread.
+ */
 public class Connection implements Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(Connection.class.getName());
 
   private final Socket socket;
   private final BufferedReader reader;
+  private final ChannelEndpoint endpoint;
+  private final CompletableFuture<Void> closeFuture = new CompletableFuture<>();
   private final TransferQueue<Command> incomingCommandQueue = new LinkedTransferQueue<>();
-  private final TransferQueue<DatagramPacket> outgoingPacketQueue;
+  private final DatagramRouter datagramRouter;
   private final CommandDirector director = new CommandDirector(new ServerCommandBuilder());
+  private final CommandDirector packetDirector = new CommandDirector(new ServerCommandBuilder());
+  private final ServerCommandDecoder packetDecoder = new ServerCommandDecoder();
   private final ServiceState state = new ServiceState();
   private SenderChain sender;
+  private volatile Runnable commandListener;
 
   /**
    * @param socket an already opened TCP socket.
-   * @param outgoingPacketQueue used for sending UDP packets.
+   * @param datagramRouter used for sending UDP packets.
    *
    * @throws IOException if the {@code socket} is not connected or an exception occurs when
    *     opening the I/O streams.
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public Connection(Socket socket, TransferQueue<DatagramPacket> outgoingPacketQueue)
+  public Connection(Socket socket, DatagramRouter datagramRouter)
       throws IOException {
-    if (socket == null || outgoingPacketQueue == null) {
+    if (socket == null || datagramRouter == null) {
       throw new NullPointerException();
     }
     this.socket = socket;
-    this.outgoingPacketQueue = outgoingPacketQueue;
+    this.datagramRouter = datagramRouter;
     if (!socket.isConnected()) {
       throw new IOException();
     }
     reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-    sender = new TcpChain(new PrintWriter(socket.getOutputStream()));
+    endpoint = null;
+    sender = new TcpChain(new BufferedOutputStream(socket.getOutputStream()));
+    state.set(true);
+  }
+
+  /**
+   * Construct a connection driven by a selector loop.
+   *
+   * @param socket an already opened TCP socket, which has a channel.
+   * @param datagramRouter used for sending UDP packets.
+   * @param loop the loop which reads from the socket.
+   *
+   * @throws IOException if the {@code socket} is not connected or its channel cannot be made
+   *     non-blocking.
+   * @throws IllegalArgumentException if the {@code socket} does not have a channel.
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  Connection(Socket socket, DatagramRouter datagramRouter, SelectorLoop loop)
+      throws IOException {
+    if (socket == null || datagramRouter == null || loop == null) {
+      throw new NullPointerException();
+    }
+    if (socket.getChannel() == null) {
+      throw new IllegalArgumentException();
+    }
+    this.socket = socket;
+    this.datagramRouter = datagramRouter;
+    if (!socket.isConnected()) {
+      throw new IOException();
+    }
+    reader = null;
+    endpoint = new ChannelEndpoint(socket.getChannel(),loop,new EndpointListener());
+    sender = new TcpChain(new BufferedOutputStream(endpoint.getOutputStream()));
     state.set(true);
   }
 
   /**
    * Start reading from the TCP socket.
    *
+   * <p>A connection driven by a selector loop is registered with the loop. Otherwise, the
+   * connection is submitted to the {@code executor}, where it blocks a thread while reading.
+   *
+   * @return a future which is done once the connection is closed. It completes exceptionally if
+   *     the connection has been closed because of an error or EOF.
+   *
+   * @throws RejectedExecutionException if the connection cannot be submitted.
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public Future<Void> start(ExecutorService executor) {
+    if (executor == null) {
+      throw new NullPointerException();
+    }
+    if (endpoint == null) {
+      return executor.submit(this);
+    }
+    endpoint.start();
+    return closeFuture;
+  }
+
+  /**
+   * Read from the TCP socket.
+   *
+   * <p>A connection driven by a selector loop is read by the loop, so this only waits until the
+   * connection is closed.
+   *
    * @throws IOException if an error or EOF is reached while reading.
+   * @throws InterruptedException if interrupted while waiting for the connection to close.
    */
   @Override
-  public Void call() throws IOException {
-    while (state.get()) {
-      String data = null;
+  public Void call() throws IOException, InterruptedException {
+    if (endpoint != null) {
       try {
-        data = reader.readLine();
-      } catch (IOException ioException) {
-        if (state.get()) {
-          throw ioException;
-        }
-        break;
-      }
-      if (data == null) {
-        // EOF.
-        throw new IOException();
+        closeFuture.get();
+      } catch (ExecutionException exception) {
+        throw (IOException) exception.getCause();
       }
-      try {
-        director.makeCommand(data);
-        if (!incomingCommandQueue.offer(director.getCommand())) {
-          // This should never happen.
-          throw new AssertionError();
+      return null;
+    }
+    try {
+      while (state.get()) {
+        String data = null;
+        try {
+          data = reader.readLine();
+        } catch (IOException ioException) {
+          if (state.get()) {
+            throw ioException;
+          }
+          break;
         }
-      } catch (JsonSyntaxException | CommandNotFoundException exception) {
-        LOGGER.log(SEVERE,exception.toString(),exception);
+        if (data == null) {
+          // EOF.
+          throw new IOException();
+        }
+        unwrapLine(data);
       }
+    } catch (IOException ioException) {
+      closeFuture.completeExceptionally(ioException);
+      throw ioException;
+    } finally {
+      closeFuture.complete(null);
     }
     return null;
   }
@@ -98,32 +184,69 @@ public class Connection implements Service<Void> {
   @Override
   public void shutdown() {
     state.set(false);
+    if (endpoint != null) {
+      endpoint.close(null);
+      return;
+    }
     try {
       socket.close();
     } catch (IOException ioException) {
       LOGGER.log(SEVERE,ioException.toString(),ioException);
     }
+    closeFuture.complete(null);
   }
 
   /**
-   * Unwrap an UDP packet and put it in the {@code incomingCommandQueue}.
-   * 
+   * Run an action once the connection is closed, either locally or by the client.
+   *
+   * <p>If the connection is already closed, the action runs right away.
+   *
    * @throws NullPointerException if argument is {@code null}.
    */
-  public void unwrapPacket(DatagramPacket packet) {
-    if (packet == null) {
+  void whenClosed(final Runnable action) {
+    if (action == null) {
       throw new NullPointerException();
     }
-    final String data = new String(packet.getData());
+    closeFuture.whenComplete(new BiConsumer<Void,Throwable>() {
+      @Override
+      public void accept(Void result, Throwable cause) {
+        action.run();
+      }
+    });
+  }
 
-    try {
-      director.makeCommand(data.trim());
-      if (!incomingCommandQueue.offer(director.getCommand())) {
-        throw new AssertionError();
+  /**
+   * Unwrap an UDP packet and put it in the {@code incomingCommandQueue}.
+   *
+   * <p>Player moves and shots are decoded straight from the bytes of the packet. Any other command
+   * is parsed as JSON.
+   *
+   * @param data the contents of the packet, between its position and its limit. The position is
+   *     not changed. Must be called by one thread at a time.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public void unwrapDatagram(ByteBuffer data) {
+    if (data == null) {
+      throw new NullPointerException();
+    }
+    Command command = packetDecoder.decode(data);
+    if (command == null) {
+      final byte[] bytes = new byte[data.remaining()];
+      data.duplicate().get(bytes);
+      try {
+        packetDirector.makeCommand(new String(bytes,UTF_8).trim());
+      } catch (JsonSyntaxException | CommandNotFoundException exception) {
+        LOGGER.log(SEVERE,exception.toString(),exception);
+        return;
       }
-    } catch (JsonSyntaxException | CommandNotFoundException exception) {
-      LOGGER.log(SEVERE,exception.toString(),exception);
+      command = packetDirector.getCommand();
+    }
+    if (!incomingCommandQueue.offer(command)) {
+      // This should never happen.
+      throw new AssertionError();
     }
+    notifyCommandListener();
   }
 
   /**
@@ -140,6 +263,18 @@ public class Connection implements Service<Void> {
     sender.handle(command);
   }
 
+  /**
+   * Send an already encoded frame to the client, together with all commands sent before it.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public void send(EncodedFrame frame) {
+    if (frame == null) {
+      throw new NullPointerException();
+    }
+    sender.send(frame);
+  }
+
   /**
    * Drains the {@code incomingCommandQueue} into a list.
    *
@@ -156,6 +291,17 @@ public class Connection implements Service<Void> {
     return commands;
   }
 
+  /**
+   * Run an action every time a command is received, on the thread which received it.
+   *
+   * <p>The action should be short, since it delays the reading of further commands.
+   *
+   * @param listener the action, or {@code null} to stop being notified.
+   */
+  public void setCommandListener(Runnable listener) {
+    commandListener = listener;
+  }
+
   public boolean isClosed() {
     return socket.isClosed();
   }
@@ -171,14 +317,56 @@ public class Connection implements Service<Void> {
     }
   }
 
+  /** Parse a line received over TCP and put the command in the {@code incomingCommandQueue}. */
+  private void unwrapLine(String data) {
+    try {
+      director.makeCommand(data);
+      if (!incomingCommandQueue.offer(director.getCommand())) {
+        // This should never happen.
+        throw new AssertionError();
+      }
+    } catch (JsonSyntaxException | CommandNotFoundException exception) {
+      LOGGER.log(SEVERE,exception.toString(),exception);
+      return;
+    }
+    notifyCommandListener();
+  }
+
+  private void notifyCommandListener() {
+    final Runnable listener = commandListener;
+    if (listener != null) {
+      listener.run();
+    }
+  }
+
   /**
    * Add an UDP sender to the chain.
    * 
    * @param port the port of the remote client, where UDP packets should be sent.
+   * @param binaryFrames true if the client understands binary frames.
    */
-  public void setUdpChain(int port) {
+  public void setUdpChain(int port, boolean binaryFrames) {
     final SenderChain temp = sender;
-    sender = new UdpChain(new InetSocketAddress(socket.getInetAddress(),port),outgoingPacketQueue);
+    final InetSocketAddress destination = new InetSocketAddress(socket.getInetAddress(),port);
+    sender = new UdpChain(destination,datagramRouter.queueFor(destination),binaryFrames);
     sender.setNext(temp);
   }
+
+  /** Receives lines and the closing of the socket from the selector loop. */
+  private class EndpointListener implements ChannelEndpoint.Listener {
+    @Override
+    public void lineReceived(String line) {
+      unwrapLine(line);
+    }
+
+    @Override
+    public void closed(IOException cause) {
+      state.set(false);
+      if (cause == null) {
+        closeFuture.complete(null);
+      } else {
+        closeFuture.completeExceptionally(cause);
+      }
+    }
+  }
 }
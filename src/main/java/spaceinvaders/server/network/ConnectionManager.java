@@ -1,57 +1,66 @@
 package spaceinvaders.server.network;
 
-import java.net.DatagramPacket;
+import static spaceinvaders.utility.TcpFrontEndEnum.SELECTOR;
+
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TransferQueue;
+import java.util.logging.Logger;
+import spaceinvaders.Config;
 import spaceinvaders.exceptions.IllegalPortNumberException;
 import spaceinvaders.exceptions.SocketOpeningException;
 import spaceinvaders.server.network.tcp.TcpHandler;
+import spaceinvaders.server.network.udp.DatagramRouter;
+import spaceinvaders.server.network.udp.PacketRouter;
 import spaceinvaders.server.network.udp.UdpHandler;
 import spaceinvaders.server.player.PlayerManager;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.ServiceSupervisor;
 
 /**
  * Manages I/O between clients and server.
  *
  * <p>A newly opened socket is filtered and wrapped into a
  * {@link spaceinvaders.server.network.Connection}, which is forwarded to
- * {@link spaceinvaders.server.player.PlayerManager}.
- * An incoming packet goes through a dispatcher, wich forwards it to the intended receiver.
+ * {@link spaceinvaders.server.player.PlayerManager}, as long as the configured number of
+ * connections is not exceeded.
+ * An incoming packet goes through one of the dispatchers, wich forwards it to the intended
+ * receiver. Packets from the same client always go through the same dispatcher.
+ *
+ * <p>Depending on the {@link spaceinvaders.utility.TcpFrontEndEnum mode} found in the application
+ * configuration, connections are either read on threads of their own or by a few
+ * {@link SelectorLoop selector loops}.
  */
 public class ConnectionManager implements Service<Void> {
-  private static final int MAX_CONNECTIONS = 12;
+  private static final Logger LOGGER = Logger.getLogger(ConnectionManager.class.getName());
 
   private final ConcurrentMap<SocketAddress,Connection> addressToConnection =
        new ConcurrentHashMap<>();
   private final TransferQueue<Socket> socketQueue = new LinkedTransferQueue<>();
-  private final TransferQueue<DatagramPacket> incomingPacketQueue = new LinkedTransferQueue<>();
-  private final TransferQueue<DatagramPacket> outgoingPacketQueue = new LinkedTransferQueue<>();
-  private final SocketWrapper connectionWrapper = new SocketWrapper(socketQueue,outgoingPacketQueue,
-      addressToConnection,new CheckSeverAvailability());
-  private final Service<Void> dispatcher =
-      new PacketDispatcher(incomingPacketQueue,addressToConnection);
+  private final PacketRouter packetRouter;
+  private final DatagramRouter datagramRouter;
+  private final List<SelectorLoop> selectorLoops = new ArrayList<>();
+  private final SocketWrapper connectionWrapper;
+  private final List<PacketDispatcher> dispatchers = new ArrayList<>();
   private final ServiceState state = new ServiceState();
+  private final ServiceSupervisor supervisor = new ServiceSupervisor();
   private final Service<Void> tcpHandler;
   private final Service<Void> udpHandler;
   private final ExecutorService tcpExecutor;
   private final ExecutorService udpExecutor;
   private final ExecutorService connectionWrapperExecutor;
   private final ExecutorService dispatcherExecutor;
+  private final ExecutorService selectorExecutor;
 
   /**
    * @param port port used for accepting new connections and receiving data.
@@ -59,14 +68,44 @@ public class ConnectionManager implements Service<Void> {
    * @throws SocketOpeningException if an error occurs while opening a socket.
    * @throws SecurityException if a security manager does not allow an operation.
    * @throws IllegalPortNumberException if the specified port number is invalid.
+   * @throws IllegalArgumentException if the connection limits or the queue capacity in the
+   *     configuration are invalid.
    */
   public ConnectionManager(int port) throws SocketOpeningException {
-    tcpHandler = new TcpHandler(port,socketQueue);
-    udpHandler = new UdpHandler(port,incomingPacketQueue,outgoingPacketQueue);
+    final Config config = Config.getInstance();
+    if (config.getTcpFrontEnd() == SELECTOR) {
+      int ioThreads = config.getIoThreads();
+      if (ioThreads <= 0) {
+        ioThreads = Runtime.getRuntime().availableProcessors();
+      }
+      for (int index = 0; index < ioThreads; ++index) {
+        selectorLoops.add(new SelectorLoop());
+      }
+      LOGGER.info("Reading TCP connections on " + ioThreads + " I/O threads");
+    }
+    int dispatcherThreads = config.getDispatcherThreads();
+    if (dispatcherThreads <= 0) {
+      dispatcherThreads = Runtime.getRuntime().availableProcessors();
+    }
+    packetRouter = new PacketRouter(dispatcherThreads,config.getPacketQueueCapacity(),
+        config.getPacketQueueWaitStrategy());
+    for (int index = 0; index < dispatcherThreads; ++index) {
+      dispatchers.add(new PacketDispatcher(index,packetRouter.getQueue(index),
+          addressToConnection));
+    }
+    LOGGER.info("Dispatching UDP packets on " + dispatcherThreads + " threads");
+    datagramRouter = new DatagramRouter(Math.max(config.getUdpSenderThreads(),1),
+        config.getPacketQueueCapacity(),config.getPacketQueueWaitStrategy());
+    connectionWrapper = new SocketWrapper(socketQueue,datagramRouter,addressToConnection,
+        new AdmissionController(config.getMaxConnections()),config.getConnectionBacklog(),
+        config.getBacklogTimeoutMilliseconds(),selectorLoops);
+    tcpHandler = new TcpHandler(port,socketQueue,!selectorLoops.isEmpty());
+    udpHandler = new UdpHandler(port,packetRouter,datagramRouter);
     tcpExecutor = Executors.newSingleThreadExecutor();
     udpExecutor = Executors.newSingleThreadExecutor();
     connectionWrapperExecutor = Executors.newSingleThreadExecutor();
-    dispatcherExecutor = Executors.newSingleThreadExecutor();
+    dispatcherExecutor = Executors.newFixedThreadPool(dispatcherThreads);
+    selectorExecutor = Executors.newCachedThreadPool();
     state.set(true);
   }
 
@@ -81,28 +120,24 @@ public class ConnectionManager implements Service<Void> {
    */
   @Override
   public Void call() throws ExecutionException, InterruptedException {
-    List<Future<?>> future = new ArrayList<>();
-    future.add(tcpExecutor.submit(tcpHandler));
-    future.add(udpExecutor.submit(udpHandler));
-    future.add(connectionWrapperExecutor.submit(connectionWrapper));
-    future.add(dispatcherExecutor.submit(dispatcher));
-    final long checkingRateMilliseconds = 1000;
-    while (state.get()) {
-      try {
-        for (Future<?> it : future) {
-          if (it.isDone()) {
-            state.set(false);
-            it.get();
-          }
-        }
-        Thread.sleep(checkingRateMilliseconds);
-      } catch (CancellationException | InterruptedException exception) {
-        if (state.get()) {
-          state.set(false);
-          throw new InterruptedException();
-        }
-        break;
+    supervisor.start(tcpHandler,tcpExecutor);
+    supervisor.start(udpHandler,udpExecutor);
+    supervisor.start(connectionWrapper,connectionWrapperExecutor);
+    for (PacketDispatcher dispatcher : dispatchers) {
+      supervisor.start(dispatcher,dispatcherExecutor);
+    }
+    for (SelectorLoop loop : selectorLoops) {
+      supervisor.start(loop,selectorExecutor);
+    }
+    try {
+      supervisor.await();
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        state.set(false);
+        throw new InterruptedException();
       }
+    } finally {
+      state.set(false);
     }
     return null;
   }
@@ -110,14 +145,30 @@ public class ConnectionManager implements Service<Void> {
   @Override
   public void shutdown() {
     state.set(false);
+    supervisor.stop();
     tcpHandler.shutdown();
     udpHandler.shutdown();
     connectionWrapper.shutdown();
-    dispatcher.shutdown();
+    for (PacketDispatcher dispatcher : dispatchers) {
+      dispatcher.shutdown();
+    }
+    for (SelectorLoop loop : selectorLoops) {
+      loop.shutdown();
+    }
     udpExecutor.shutdownNow();
     connectionWrapperExecutor.shutdownNow();
     dispatcherExecutor.shutdownNow();
     tcpExecutor.shutdownNow();
+    selectorExecutor.shutdownNow();
+  }
+
+  /** Get a human readable description of the packet dispatchers. */
+  public String getStatus() {
+    StringBuffer buf = new StringBuffer();
+    for (PacketDispatcher dispatcher : dispatchers) {
+      buf.append(dispatcher.getStatus());
+    }
+    return buf.toString();
   }
 
   /**
@@ -132,24 +183,4 @@ public class ConnectionManager implements Service<Void> {
     }
     connectionWrapper.addObserver(playerManager);
   }
-
-  /** Does the cleanup and checks if the server can take in one more connections. */
-  private class CheckSeverAvailability implements Callable<Boolean> {
-    @Override
-    public Boolean call() {
-      doCleanup();
-      return addressToConnection.size() < MAX_CONNECTIONS;
-    }
-
-    /** Clear all closed connections. */
-    private void doCleanup() {
-      Iterator<Connection> it = addressToConnection.values().iterator();
-      while (it.hasNext()) {
-        Connection connection = it.next();
-        if (connection.isClosed()) {
-          it.remove();
-        }
-      }
-    }
-  }
 }
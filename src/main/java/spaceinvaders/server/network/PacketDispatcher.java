@@ -1,9 +1,12 @@
 package spaceinvaders.server.network;
 
-import java.net.DatagramPacket;
+import static java.util.logging.Level.SEVERE;
+
 import java.net.SocketAddress;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TransferQueue;
+import java.util.logging.Logger;
+import spaceinvaders.server.network.udp.ReceivedDatagram;
+import spaceinvaders.utility.RingBuffer;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
 
@@ -13,23 +16,38 @@ import spaceinvaders.utility.ServiceState;
  * <p>When an UDP packet arrives, it goes through the dispatcher and it is forwarded to the
  * corresponding {@link spaceinvaders.server.network.Connection}, based on the address it was sent
  * from.
+ *
+ * <p>Packets are dispatched by several dispatchers, each with a queue of its own, as given by the
+ * {@link spaceinvaders.server.network.udp.PacketRouter}.
+ *
+ * <p>Packets refused by the queue, because the dispatcher could not keep up, are reported in the
+ * log. So is the depth of the queue, each time it reaches twice its previous maximum.
  */
 class PacketDispatcher implements Service<Void> {
-  private final TransferQueue<DatagramPacket> packetQueue;
+  private static final Logger LOGGER = Logger.getLogger(PacketDispatcher.class.getName());
+  private static final int REPORTED_QUEUE_DEPTH = 64;
+
+  private final RingBuffer<ReceivedDatagram> packetQueue;
   private final ConcurrentMap<SocketAddress,Connection> addressToConnection;
+  private final int index;
   private final ServiceState state = new ServiceState();
+  private long refusedPackets;
+  private volatile int maxQueueDepth;
+  private int reportedQueueDepth = REPORTED_QUEUE_DEPTH;
 
   /**
+   * @param index identifies the dispatcher in the log.
    * @param packetQueue incoming packets will be taken from this queue.
    * @param addressToConnection each socket address is mapped to a connection.
    *
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public PacketDispatcher(TransferQueue<DatagramPacket> packetQueue,
+  public PacketDispatcher(int index, RingBuffer<ReceivedDatagram> packetQueue,
       ConcurrentMap<SocketAddress,Connection> addressToConnection) {
     if (packetQueue == null || addressToConnection == null) {
       throw new NullPointerException();
     }
+    this.index = index;
     this.packetQueue = packetQueue;
     this.addressToConnection = addressToConnection;
     state.set(true);
@@ -43,7 +61,7 @@ class PacketDispatcher implements Service<Void> {
   @Override
   public Void call() throws InterruptedException {
     while (state.get()) {
-      DatagramPacket packet = null;
+      ReceivedDatagram packet = null;
       try {
         packet = packetQueue.take();
       } catch (InterruptedException intException) {
@@ -57,12 +75,21 @@ class PacketDispatcher implements Service<Void> {
         // This should never happen.
         throw new AssertionError();
       }
+      recordQueueDepth(packetQueue.size() + 1);
 
-      SocketAddress addr = packet.getSocketAddress();
+      SocketAddress addr = packet.getSource();
       Connection receiver = addressToConnection.get(addr);
-      if (receiver != null) {
-        receiver.unwrapPacket(packet);
+      try {
+        if (receiver != null) {
+          receiver.unwrapDatagram(packet.getData());
+        }
+      } catch (RuntimeException rte) {
+        // One bad packet must not stop the dispatcher.
+        LOGGER.log(SEVERE,rte.toString(),rte);
+      } finally {
+        packet.release();
       }
+      reportRefused();
     }
     return null;
   }
@@ -71,4 +98,35 @@ class PacketDispatcher implements Service<Void> {
   public void shutdown() {
     state.set(false);
   }
+
+  /**
+   * Get a human readable description of the queue: the packets waiting now, the most packets which
+   * have been waiting at once, and the packets dropped so far because the queue was full.
+   */
+  public String getStatus() {
+    return "Packet dispatcher " + index + " queue: " + packetQueue.size() + " (max "
+        + maxQueueDepth + "), dropped: " + packetQueue.getRefusedCount() + "\n";
+  }
+
+  private void recordQueueDepth(int depth) {
+    if (depth <= maxQueueDepth) {
+      return;
+    }
+    maxQueueDepth = depth;
+    if (depth >= reportedQueueDepth) {
+      LOGGER.info("Packet dispatcher " + index + " queue reached " + depth + " packets");
+      while (reportedQueueDepth <= depth) {
+        reportedQueueDepth *= 2;
+      }
+    }
+  }
+
+  private void reportRefused() {
+    final long refused = packetQueue.getRefusedCount();
+    if (refused != refusedPackets) {
+      LOGGER.warning("Packet dispatcher " + index + " fell behind, dropped "
+          + (refused - refusedPackets) + " packets");
+      refusedPackets = refused;
+    }
+  }
 }
@@ -0,0 +1,127 @@
+package spaceinvaders.server.network;
+
+import static java.util.logging.Level.SEVERE;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+import spaceinvaders.exceptions.SocketOpeningException;
+import spaceinvaders.utility.Service;
+import spaceinvaders.utility.ServiceState;
+
+/**
+ * Drives the non-blocking I/O of many TCP connections on a single thread.
+ *
+ * <p>Every registered {@link ChannelEndpoint} is notified when its channel becomes readable or
+ * writable. Registrations and changes of interest are queued and applied by the loop itself, so
+ * they can be requested from any thread.
+ */
+class SelectorLoop implements Service<Void> {
+  private static final Logger LOGGER = Logger.getLogger(SelectorLoop.class.getName());
+
+  private final Selector selector;
+  private final Queue<ChannelEndpoint> pendingUpdates = new ConcurrentLinkedQueue<>();
+  private final ServiceState state = new ServiceState();
+
+  /**
+   * @throws SocketOpeningException if the selector cannot be opened.
+   */
+  public SelectorLoop() throws SocketOpeningException {
+    try {
+      selector = Selector.open();
+    } catch (IOException ioException) {
+      throw new SocketOpeningException(ioException);
+    }
+    state.set(true);
+  }
+
+  /**
+   * Start selecting.
+   *
+   * <p>When the loop stops, all endpoints still registered with it are closed.
+   *
+   * @throws IOException if the selector fails.
+   */
+  @Override
+  public Void call() throws IOException {
+    try {
+      while (state.get()) {
+        selector.select();
+        ChannelEndpoint endpoint = null;
+        while ((endpoint = pendingUpdates.poll()) != null) {
+          endpoint.updateRegistration(selector);
+        }
+        final Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+          final SelectionKey key = it.next();
+          it.remove();
+          try {
+            ((ChannelEndpoint) key.attachment()).handle(key);
+          } catch (CancelledKeyException keyException) {
+            // The endpoint has been closed by another thread.
+            continue;
+          }
+        }
+      }
+    } catch (IOException | ClosedSelectorException exception) {
+      if (state.get()) {
+        throw exception;
+      }
+    } finally {
+      closeAll();
+    }
+    return null;
+  }
+
+  @Override
+  public void shutdown() {
+    state.set(false);
+    selector.wakeup();
+  }
+
+  /**
+   * Register an endpoint or update its interest in writing.
+   *
+   * <p>The change is applied by the loop thread, shortly after this call.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public void update(ChannelEndpoint endpoint) {
+    if (endpoint == null) {
+      throw new NullPointerException();
+    }
+    if (!pendingUpdates.offer(endpoint)) {
+      // This should never happen.
+      throw new AssertionError();
+    }
+    selector.wakeup();
+  }
+
+  /** Close the selector and all endpoints registered with it. */
+  private void closeAll() {
+    final List<ChannelEndpoint> endpoints = new ArrayList<>();
+    try {
+      for (SelectionKey key : selector.keys()) {
+        endpoints.add((ChannelEndpoint) key.attachment());
+      }
+      selector.close();
+    } catch (IOException | ClosedSelectorException exception) {
+      LOGGER.log(SEVERE,exception.toString(),exception);
+    }
+    for (ChannelEndpoint endpoint : endpoints) {
+      endpoint.close(null);
+    }
+    ChannelEndpoint endpoint = null;
+    while ((endpoint = pendingUpdates.poll()) != null) {
+      endpoint.close(null);
+    }
+  }
+}
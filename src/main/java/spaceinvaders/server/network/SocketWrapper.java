@@ -1,17 +1,23 @@
 package spaceinvaders.server.network;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.logging.Level.SEVERE;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.Observable;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TransferQueue;
 import java.util.logging.Logger;
+import spaceinvaders.command.client.ServerFullCommand;
+import spaceinvaders.server.network.udp.DatagramRouter;
+import spaceinvaders.utility.Couple;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
 
@@ -21,35 +27,59 @@ import spaceinvaders.utility.ServiceState;
  * <p>When a new TCP socket is opened for an incoming connection, the socket is wrapped into a
  * {@link Connection}. The result of the wrapping is passed to the
  * {@link spaceinvaders.server.player.PlayerManager}.
+ *
+ * <p>A socket is wrapped only if the {@link AdmissionController} has a free slot for it. Otherwise,
+ * it waits in a bounded backlog until a slot frees up. A socket which does not fit in the backlog,
+ * or which waits there for too long, is refused with a {@link ServerFullCommand}.
+ *
+ * <p>Sockets backed by a channel are handed to the selector loops in turn.
  */
 class SocketWrapper extends Observable implements Service<Void> {
   private static Logger LOGGER = Logger.getLogger(SocketWrapper.class.getName());
+  private static final long BACKLOG_CHECK_MILLISECONDS = 50;
 
   private final TransferQueue<Socket> socketQueue;
-  private final TransferQueue<DatagramPacket> outgoingPacketQueue;
+  private final DatagramRouter datagramRouter;
   private final ConcurrentMap<SocketAddress,Connection> addressToConnection;
-  private final Callable<Boolean> checkServerAvailability;
+  private final AdmissionController admission;
+  private final Deque<Couple<Socket,Long>> backlog = new ArrayDeque<>();
+  private final int backlogSize;
+  private final long backlogTimeoutNanos;
+  private final List<SelectorLoop> selectorLoops;
   private final ServiceState state = new ServiceState();
+  private int nextLoop;
 
   /**
    * @param socketQueue new sockets will be taken from this queue.
-   * @param outgoingPacketQueue any packet sent by a connection will be going through this queue 
+   * @param datagramRouter any packet sent by a connection will be going through this router.
    * @param addressToConnection  used for mapping socket adresses to connections.
-   * @param  checkServerAvailability checks if the server can accept any more incomming connection.
-   * 
+   * @param admission decides if the server can accept any more incoming connections.
+   * @param backlogSize how many sockets may wait for a free slot.
+   * @param backlogTimeoutMilliseconds how long a socket may wait for a free slot.
+   * @param selectorLoops loops which drive the sockets backed by channels.
+   *
    * @throws NullPointerException if an argument is {@code null}.
+   * @throws IllegalArgumentException if {@code backlogSize} or {@code backlogTimeoutMilliseconds}
+   *     is negative.
    */
-  public SocketWrapper(TransferQueue<Socket> socketQueue,
-      TransferQueue<DatagramPacket> outgoingPacketQueue,
+  public SocketWrapper(TransferQueue<Socket> socketQueue, DatagramRouter datagramRouter,
       ConcurrentMap<SocketAddress,Connection> addressToConnection,
-      Callable<Boolean> checkServerAvailability) {
-    if (socketQueue == null || addressToConnection == null || checkServerAvailability == null) {
+      AdmissionController admission, int backlogSize, long backlogTimeoutMilliseconds,
+      List<SelectorLoop> selectorLoops) {
+    if (socketQueue == null || datagramRouter == null || addressToConnection == null
+        || admission == null || selectorLoops == null) {
       throw new NullPointerException();
     }
+    if (backlogSize < 0 || backlogTimeoutMilliseconds < 0) {
+      throw new IllegalArgumentException();
+    }
+    this.selectorLoops = selectorLoops;
     this.socketQueue = socketQueue;
-    this.outgoingPacketQueue = outgoingPacketQueue;
+    this.datagramRouter = datagramRouter;
     this.addressToConnection = addressToConnection;
-    this.checkServerAvailability = checkServerAvailability;
+    this.admission = admission;
+    this.backlogSize = backlogSize;
+    this.backlogTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(backlogTimeoutMilliseconds);
     state.set(true);
   }
 
@@ -58,61 +88,44 @@ class SocketWrapper extends Observable implements Service<Void> {
    *
    * <p>Once a new TCP socket is polled, it is forwarded to the
    * {@link spaceinvaders.server.network.ConnectionManager}, or in case the server cannot accept
-   * any more players, the socket is closed.
+   * any more players, the socket waits in the backlog or it is refused.
    *
    * @throws InterruptedException if the service is interrupted prior to shutdown.
    */
   @Override
   public Void call() throws InterruptedException {
-    final long pollTimeout = 1;
-    final TimeUnit timeUnit = TimeUnit.SECONDS;
-
-    while (state.get()) {
-      Socket clientSocket = null;
-      try {
-        clientSocket = socketQueue.poll(pollTimeout,timeUnit);
-      } catch (InterruptedException intException) {
-        if (state.get()) {
-          state.set(false);
-          throw new InterruptedException();
-        }
-        break;
-      }
-      if (clientSocket == null) {
-        continue;
-      }
-      boolean availability = false;
-      try {
-        availability = checkServerAvailability.call();
-      } catch (Exception exception) {
-        // This should never happen.
-        LOGGER.log(SEVERE,exception.toString(),exception);
-        throw new AssertionError();
-      }
-      if (availability) {
-        Connection connection = null;
+    final long pollTimeout = 1000;
+    final TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+
+    try {
+      while (state.get()) {
+        Socket clientSocket = null;
         try {
-          connection = new Connection(clientSocket,outgoingPacketQueue);
-        } catch (IOException ioException) {
-          LOGGER.log(SEVERE,ioException.toString(),ioException);
+          clientSocket = socketQueue.poll(
+              backlog.isEmpty() ? pollTimeout : BACKLOG_CHECK_MILLISECONDS,timeUnit);
+        } catch (InterruptedException intException) {
+          if (state.get()) {
+            state.set(false);
+            throw new InterruptedException();
+          }
+          break;
+        }
+        serveBacklog();
+        if (clientSocket == null) {
           continue;
         }
-
-        LOGGER.info("New connection: " + connection.hashCode()
-            + " from " + connection.getRemoteSocketAddress());
-
-        addressToConnection.put(connection.getRemoteSocketAddress(),connection);
-        setChanged();
-
-        // Notify the connection manager.
-        notifyObservers(connection);
-      } else {
-        try {
-          clientSocket.close();
-        } catch (IOException ioException) {
-          LOGGER.log(SEVERE,ioException.toString(),ioException);
+        if (backlog.isEmpty() && admission.tryAcquire()) {
+          wrap(clientSocket);
+        } else if (backlog.size() < backlogSize) {
+          backlog.addLast(new Couple<>(clientSocket,System.nanoTime() + backlogTimeoutNanos));
+        } else {
+          refuse(clientSocket);
         }
       }
+    } finally {
+      while (!backlog.isEmpty()) {
+        close(backlog.pollFirst().getFirst());
+      }
     }
     return null;
   }
@@ -121,4 +134,78 @@ class SocketWrapper extends Observable implements Service<Void> {
   public void shutdown() {
     state.set(false);
   }
+
+  /** Admit waiting sockets while there are free slots, and refuse those which waited too long. */
+  private void serveBacklog() {
+    while (!backlog.isEmpty() && admission.tryAcquire()) {
+      wrap(backlog.pollFirst().getFirst());
+    }
+    final long now = System.nanoTime();
+    while (!backlog.isEmpty() && backlog.peekFirst().getSecond() - now <= 0) {
+      refuse(backlog.pollFirst().getFirst());
+    }
+  }
+
+  /** Wrap a socket for which a slot has been taken. */
+  private void wrap(Socket clientSocket) {
+    Connection connection = null;
+    try {
+      if (clientSocket.getChannel() == null) {
+        connection = new Connection(clientSocket,datagramRouter);
+      } else {
+        if (selectorLoops.isEmpty()) {
+          // This should never happen.
+          throw new AssertionError();
+        }
+        nextLoop = (nextLoop + 1) % selectorLoops.size();
+        connection = new Connection(clientSocket,datagramRouter,
+            selectorLoops.get(nextLoop));
+      }
+    } catch (IOException ioException) {
+      LOGGER.log(SEVERE,ioException.toString(),ioException);
+      admission.release();
+      close(clientSocket);
+      return;
+    }
+
+    LOGGER.info("New connection: " + connection.hashCode()
+        + " from " + connection.getRemoteSocketAddress());
+
+    final SocketAddress address = connection.getRemoteSocketAddress();
+    final Connection admitted = connection;
+    addressToConnection.put(address,admitted);
+    admitted.whenClosed(new Runnable() {
+      @Override
+      public void run() {
+        addressToConnection.remove(address,admitted);
+        admission.release();
+      }
+    });
+    setChanged();
+
+    // Notify the connection manager.
+    notifyObservers(connection);
+  }
+
+  /** Tell the client that the server is full, then close the socket. */
+  private void refuse(Socket clientSocket) {
+    LOGGER.info("Server full, refusing " + clientSocket.getRemoteSocketAddress());
+
+    try {
+      final OutputStream stream = clientSocket.getOutputStream();
+      stream.write((new ServerFullCommand().toJson() + "\n").getBytes(UTF_8));
+      stream.flush();
+    } catch (IOException ioException) {
+      LOGGER.log(SEVERE,ioException.toString(),ioException);
+    }
+    close(clientSocket);
+  }
+
+  private void close(Socket clientSocket) {
+    try {
+      clientSocket.close();
+    } catch (IOException ioException) {
+      LOGGER.log(SEVERE,ioException.toString(),ioException);
+    }
+  }
 }
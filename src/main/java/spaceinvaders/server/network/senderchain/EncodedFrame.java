@@ -0,0 +1,98 @@
+package spaceinvaders.server.network.senderchain;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static spaceinvaders.command.ProtocolEnum.TCP;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import spaceinvaders.command.Command;
+import spaceinvaders.command.client.FrameEncoder;
+
+/**
+ * The commands of a frame, serialized in every form a client might need.
+ *
+ * <p>A game encodes each frame once and hands the same instance to all of its players, instead of
+ * letting every player serialize the same commands again. The encoded bytes never change, so they
+ * can be written to any number of connections.
+ *
+ * <p>Each of the two UDP forms is encoded the first time it is requested, so a form that none of
+ * the players uses costs nothing.
+ */
+public class EncodedFrame {
+  private final byte[] tcpData;
+  private final List<Command> udpCommands;
+  private List<byte[]> udpJsonDatagrams;
+  private List<byte[]> udpBinaryDatagrams;
+
+  private EncodedFrame(byte[] tcpData, List<Command> udpCommands) {
+    this.tcpData = tcpData;
+    this.udpCommands = udpCommands;
+  }
+
+  /**
+   * Encode the commands of a frame.
+   *
+   * <p>Commands sent over TCP are concatenated into a single block of JSON lines. Commands sent
+   * over UDP are serialized later, as one JSON datagram per command or as binary frames.
+   *
+   * @param commands the commands of the frame, in the order in which they should be executed.
+   *
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public static EncodedFrame encode(List<Command> commands) {
+    if (commands == null) {
+      throw new NullPointerException();
+    }
+    final ByteArrayOutputStream tcpStream = new ByteArrayOutputStream();
+    final List<Command> udpCommands = new ArrayList<>();
+    for (Command command : commands) {
+      if (command.getProtocol().equals(TCP)) {
+        final byte[] line = command.toJson().getBytes(UTF_8);
+        tcpStream.write(line,0,line.length);
+        tcpStream.write('\n');
+      } else {
+        udpCommands.add(command);
+      }
+    }
+    return new EncodedFrame(tcpStream.toByteArray(),udpCommands);
+  }
+
+  /** Newline separated JSON of the commands sent over TCP. Must not be modified. */
+  public byte[] getTcpData() {
+    return tcpData;
+  }
+
+  /**
+   * Datagrams for the commands sent over UDP.
+   *
+   * @param binary true for binary frames, false for one JSON command per datagram.
+   *
+   * @return an unmodifiable list of datagrams, whose contents must not be modified.
+   */
+  public synchronized List<byte[]> getUdpDatagrams(boolean binary) {
+    if (binary) {
+      if (udpBinaryDatagrams == null) {
+        final List<byte[]> datagrams = new ArrayList<>();
+        final FrameEncoder encoder = new FrameEncoder();
+        for (Command command : udpCommands) {
+          if (!encoder.add(command)) {
+            datagrams.add(command.toJson().getBytes(UTF_8));
+          }
+        }
+        encoder.drainTo(datagrams);
+        udpBinaryDatagrams = Collections.unmodifiableList(datagrams);
+      }
+      return udpBinaryDatagrams;
+    }
+    if (udpJsonDatagrams == null) {
+      final List<byte[]> datagrams = new ArrayList<>(udpCommands.size());
+      for (Command command : udpCommands) {
+        datagrams.add(command.toJson().getBytes(UTF_8));
+      }
+      udpJsonDatagrams = Collections.unmodifiableList(datagrams);
+    }
+    return udpJsonDatagrams;
+  }
+}
@@ -23,6 +23,16 @@ public abstract class SenderChain implements Chain<Command> {
     }
   }
 
+  /**
+   * Send the part of an already encoded frame which belongs to this protocol, then pass the frame
+   * down the chain.
+   *
+   * <p>The frame is sent right away, together with any command handled before it.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public abstract void send(EncodedFrame frame);
+
   /** Flush commands. */
   public abstract void flush();
 }
@@ -1,24 +1,35 @@
 package spaceinvaders.server.network.senderchain;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static spaceinvaders.command.ProtocolEnum.TCP;
 
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import spaceinvaders.command.Command;
 
-/** Send commands over TCP. */
+/**
+ * Send commands over TCP.
+ *
+ * <p>Commands are written as JSON lines. Like a {@link java.io.PrintWriter}, the chain does not
+ * report I/O errors. After the first error, nothing more is written. A broken connection is
+ * detected by the side which reads from the socket.
+ */
 public class TcpChain extends SenderChain {
-  private final PrintWriter writer;
+  private static final byte[] NEWLINE = {'\n'};
+
+  private final OutputStream stream;
+  private boolean broken = false;
 
   /**
-   * @param writer writes data to the socket.
+   * @param stream writes data to the socket. Should be buffered.
    *
    * @throws NullPointerException if argument is {@code null}.
    */
-  public TcpChain(PrintWriter writer) {
-    if (writer == null) {
+  public TcpChain(OutputStream stream) {
+    if (stream == null) {
       throw new NullPointerException();
     }
-    this.writer = writer;
+    this.stream = stream;
   }
 
   /**
@@ -30,7 +41,9 @@ public class TcpChain extends SenderChain {
       throw new NullPointerException();
     }
     if (command.getProtocol().equals(TCP)) {
-      writer.println(command.toJson());     
+      final byte[] line = command.toJson().getBytes(UTF_8);
+      write(line);
+      write(NEWLINE);
     } else {
       if (getNext() == null) {
         // This should never happen.
@@ -40,8 +53,41 @@ public class TcpChain extends SenderChain {
     }
   }
 
+  /**
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  @Override
+  public void send(EncodedFrame frame) {
+    if (frame == null) {
+      throw new NullPointerException();
+    }
+    write(frame.getTcpData());
+    flush();
+    if (getNext() != null) {
+      getNext().send(frame);
+    }
+  }
+
   @Override
   public void flush() {
-    writer.flush();
+    if (broken) {
+      return;
+    }
+    try {
+      stream.flush();
+    } catch (IOException ioException) {
+      broken = true;
+    }
+  }
+
+  private void write(byte[] data) {
+    if (broken || data.length == 0) {
+      return;
+    }
+    try {
+      stream.write(data);
+    } catch (IOException ioException) {
+      broken = true;
+    }
   }
 }
@@ -1,36 +1,49 @@
 package spaceinvaders.server.network.senderchain;
 
-import static java.util.logging.Level.SEVERE;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static spaceinvaders.command.ProtocolEnum.UDP;
 
-import java.net.DatagramPacket;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TransferQueue;
-import java.util.logging.Logger;
 import spaceinvaders.command.Command;
+import spaceinvaders.command.client.FrameEncoder;
+import spaceinvaders.server.network.udp.DatagramBatch;
+import spaceinvaders.utility.RingBuffer;
 
-/** Pack and send commands over UDP. */
+/**
+ * Pack and send commands over UDP.
+ *
+ * <p>If the client understands binary frames, the commands of a frame are packed together into as
+ * few datagrams as possible. Otherwise, and for commands which have no binary form, each command
+ * is sent as JSON in a datagram of its own.
+ *
+ * <p>All datagrams of a flush are queued together, as a single {@link DatagramBatch}. If the queue
+ * is full, the batch is dropped, like a packet lost on the network.
+ */
 public class UdpChain extends SenderChain {
-  private static final Logger LOGGER = Logger.getLogger(UdpChain.class.getName());
-
   private final List<Command> buffer = new ArrayList<>();
   private final SocketAddress packetDestination;
-  private final TransferQueue<DatagramPacket> outgoingQueue;
+  private final RingBuffer<DatagramBatch> outgoingQueue;
+  private final FrameEncoder encoder;
+  private final boolean binaryFrames;
 
   /**
    * @param packetDestination address to which packets are sent.
-   * @param outgoingQueue transfer queue for the packets.
+   * @param outgoingQueue queue for the datagrams.
+   * @param binaryFrames true if commands should be packed into binary frames.
    *
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public UdpChain(SocketAddress packetDestination, TransferQueue<DatagramPacket> outgoingQueue) {
+  public UdpChain(SocketAddress packetDestination, RingBuffer<DatagramBatch> outgoingQueue,
+      boolean binaryFrames) {
     if (packetDestination == null || outgoingQueue == null) {
       throw new NullPointerException();
     }
     this.packetDestination = packetDestination;
     this.outgoingQueue = outgoingQueue;
+    this.binaryFrames = binaryFrames;
+    encoder = (binaryFrames ? new FrameEncoder() : null);
   }
 
   /**
@@ -52,26 +65,45 @@ public class UdpChain extends SenderChain {
     }
   }
 
+  /**
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  @Override
+  public void send(EncodedFrame frame) {
+    if (frame == null) {
+      throw new NullPointerException();
+    }
+    flush();
+    final List<byte[]> datagrams = frame.getUdpDatagrams(binaryFrames);
+    if (!datagrams.isEmpty()) {
+      enqueue(datagrams);
+    }
+    if (getNext() == null) {
+      // This should never happen.
+      throw new AssertionError();
+    }
+    getNext().send(frame);
+  }
+
   @Override
   public void flush() {
-    List<DatagramPacket> packets = new ArrayList<>(buffer.size());
+    if (buffer.isEmpty()) {
+      return;
+    }
+    final List<byte[]> datagrams = new ArrayList<>(buffer.size());
     for (Command command : buffer) {
-      String data = command.toJson();
-      try {
-        packets.add(new DatagramPacket(data.getBytes(),data.length(),packetDestination));
-      } catch (IllegalArgumentException illegalArgException) {
-        // This should never happen.
-        LOGGER.log(SEVERE,illegalArgException.toString(),illegalArgException);
-        throw new AssertionError();
+      if (encoder == null || !encoder.add(command)) {
+        datagrams.add(command.toJson().getBytes(UTF_8));
       }
     }
     buffer.clear();
-    try {
-      outgoingQueue.addAll(packets);
-    } catch (RuntimeException rte) {
-      // This should never happen.
-      LOGGER.log(SEVERE,rte.toString(),rte);
-      throw new AssertionError();
+    if (encoder != null) {
+      encoder.drainTo(datagrams);
     }
+    enqueue(datagrams);
+  }
+
+  private void enqueue(List<byte[]> datagrams) {
+    outgoingQueue.offer(new DatagramBatch(packetDestination,datagrams));
   }
 }
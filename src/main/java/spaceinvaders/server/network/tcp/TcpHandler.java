@@ -3,8 +3,10 @@ package spaceinvaders.server.network.tcp;
 import static java.util.logging.Level.SEVERE;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
 import java.util.concurrent.TransferQueue;
 import java.util.logging.Logger;
 import spaceinvaders.exceptions.IllegalPortNumberException;
@@ -19,6 +21,9 @@ import spaceinvaders.utility.ServiceState;
  *
  * <p>All clients initially establish a TCP connection. TCP is used only for commands for which
  * the arrival must be guaranteed and their order of arrival matters.
+ *
+ * <p>Accepted sockets may be backed by a {@link java.nio.channels.SocketChannel}, so that they can
+ * later be read without blocking.
  */
 public class TcpHandler implements Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(TcpHandler.class.getName());
@@ -38,6 +43,21 @@ public class TcpHandler implements Service<Void> {
    */
   public TcpHandler(int port, TransferQueue<Socket> socketTransferQueue)
       throws SocketOpeningException, IllegalPortNumberException {
+    this(port,socketTransferQueue,false);
+  }
+
+  /**
+   * @param port the port on which incoming connections are expected to arrive.
+   * @param socketTransferQueue a queue through which the newly open sockets are transferred.
+   * @param channels if true, accepted sockets are backed by channels.
+   *
+   * @throws SocketOpeningException if an error occurs while opening the server's socket.
+   * @throws SecurityException if the security manager does not allow an operation.
+   * @throws IllegalPortNumberException if the port number is not valid.
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public TcpHandler(int port, TransferQueue<Socket> socketTransferQueue, boolean channels)
+      throws SocketOpeningException, IllegalPortNumberException {
     if (socketTransferQueue == null) {
       throw new NullPointerException();
     }
@@ -47,7 +67,12 @@ public class TcpHandler implements Service<Void> {
       throw new IllegalPortNumberException();
     }
     try {
-      serverSocket = new ServerSocket(port);
+      if (channels) {
+        serverSocket = ServerSocketChannel.open().socket();
+        serverSocket.bind(new InetSocketAddress(port));
+      } else {
+        serverSocket = new ServerSocket(port);
+      }
     } catch (IOException ioException) {
       throw new SocketOpeningException(ioException);
     } catch (IllegalArgumentException portException) {
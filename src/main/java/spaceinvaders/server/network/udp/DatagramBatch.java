@@ -0,0 +1,38 @@
+package spaceinvaders.server.network.udp;
+
+import java.net.SocketAddress;
+import java.util.List;
+
+/**
+ * Datagrams which are all sent to the same destination.
+ *
+ * <p>A batch only refers to the contents of its datagrams, so the same arrays can be shared by the
+ * batches of several players.
+ */
+public class DatagramBatch {
+  private final SocketAddress destination;
+  private final List<byte[]> datagrams;
+
+  /**
+   * @param destination address to which the datagrams are sent.
+   * @param datagrams contents of the datagrams, in the order in which they are sent. Neither the
+   *     list nor the arrays may be modified afterwards.
+   *
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public DatagramBatch(SocketAddress destination, List<byte[]> datagrams) {
+    if (destination == null || datagrams == null) {
+      throw new NullPointerException();
+    }
+    this.destination = destination;
+    this.datagrams = datagrams;
+  }
+
+  public SocketAddress getDestination() {
+    return destination;
+  }
+
+  public List<byte[]> getDatagrams() {
+    return datagrams;
+  }
+}
@@ -0,0 +1,64 @@
+package spaceinvaders.server.network.udp;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import spaceinvaders.utility.RingBuffer;
+import spaceinvaders.utility.WaitStrategyEnum;
+
+/**
+ * Spreads outgoing datagrams over several UDP senders.
+ *
+ * <p>Every sender has a queue of its own. A destination always maps to the same queue, so the
+ * datagrams sent to a client keep their order, while different clients are served in parallel.
+ *
+ * <p>Queues are bounded. When a sender falls behind, further datagrams for it are dropped, as if
+ * they had been lost on the network.
+ */
+public class DatagramRouter {
+  private final List<RingBuffer<DatagramBatch>> queues;
+
+  /**
+   * @param senders number of UDP senders.
+   * @param capacity maximum number of batches waiting for each sender.
+   * @param waitStrategy how senders wait for batches.
+   *
+   * @throws IllegalArgumentException if {@code senders} or {@code capacity} is not positive.
+   * @throws NullPointerException if {@code waitStrategy} is {@code null}.
+   */
+  public DatagramRouter(int senders, int capacity, WaitStrategyEnum waitStrategy) {
+    if (senders < 1) {
+      throw new IllegalArgumentException();
+    }
+    queues = new ArrayList<>(senders);
+    for (int index = 0; index < senders; ++index) {
+      queues.add(new RingBuffer<DatagramBatch>(capacity,waitStrategy));
+    }
+  }
+
+  /**
+   * Get the queue of the sender responsible for a destination.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public RingBuffer<DatagramBatch> queueFor(SocketAddress destination) {
+    if (destination == null) {
+      throw new NullPointerException();
+    }
+    return queues.get(indexFor(destination,queues.size()));
+  }
+
+  /** Map an address to one of {@code count} queues, always to the same one. */
+  static int indexFor(SocketAddress address, int count) {
+    final int hash = address.hashCode();
+    return Math.floorMod(hash ^ (hash >>> 16),count);
+  }
+
+  int getSenderCount() {
+    return queues.size();
+  }
+
+  RingBuffer<DatagramBatch> getQueue(int index) {
+    return queues.get(index);
+  }
+}
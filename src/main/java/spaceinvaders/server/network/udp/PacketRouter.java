@@ -0,0 +1,58 @@
+package spaceinvaders.server.network.udp;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import spaceinvaders.utility.RingBuffer;
+import spaceinvaders.utility.WaitStrategyEnum;
+
+/**
+ * Spreads incoming datagrams over several packet dispatchers.
+ *
+ * <p>Every dispatcher has a queue of its own. A source always maps to the same queue, so the
+ * packets of a client are handled in the order in which they arrived, while different clients are
+ * handled in parallel.
+ *
+ * <p>Queues are bounded. When a dispatcher falls behind, further packets for it are dropped.
+ */
+public class PacketRouter {
+  private final List<RingBuffer<ReceivedDatagram>> queues;
+
+  /**
+   * @param dispatchers number of packet dispatchers.
+   * @param capacity maximum number of packets waiting for each dispatcher.
+   * @param waitStrategy how dispatchers wait for packets.
+   *
+   * @throws IllegalArgumentException if {@code dispatchers} or {@code capacity} is not positive.
+   * @throws NullPointerException if {@code waitStrategy} is {@code null}.
+   */
+  public PacketRouter(int dispatchers, int capacity, WaitStrategyEnum waitStrategy) {
+    if (dispatchers < 1) {
+      throw new IllegalArgumentException();
+    }
+    queues = new ArrayList<>(dispatchers);
+    for (int index = 0; index < dispatchers; ++index) {
+      queues.add(new RingBuffer<ReceivedDatagram>(capacity,waitStrategy));
+    }
+  }
+
+  /**
+   * Get the queue of the dispatcher responsible for a source.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public RingBuffer<ReceivedDatagram> queueFor(SocketAddress source) {
+    if (source == null) {
+      throw new NullPointerException();
+    }
+    return queues.get(DatagramRouter.indexFor(source,queues.size()));
+  }
+
+  public int getDispatcherCount() {
+    return queues.size();
+  }
+
+  public RingBuffer<ReceivedDatagram> getQueue(int index) {
+    return queues.get(index);
+  }
+}
@@ -0,0 +1,56 @@
+package spaceinvaders.server.network.udp;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import spaceinvaders.utility.RingBuffer;
+
+/**
+ * An UDP datagram received into a pooled direct buffer.
+ *
+ * <p>Once the datagram has been handled, it must be released, so that its buffer is reused for
+ * another datagram.
+ */
+public class ReceivedDatagram {
+  private final ByteBuffer data;
+  private final RingBuffer<ReceivedDatagram> pool;
+  private SocketAddress source;
+
+  /**
+   * @param capacity maximum size of the datagram (in bytes).
+   * @param pool where the datagram goes back when it is released.
+   */
+  ReceivedDatagram(int capacity, RingBuffer<ReceivedDatagram> pool) {
+    data = ByteBuffer.allocateDirect(capacity);
+    this.pool = pool;
+  }
+
+  /**
+   * Receive a datagram from a blocking channel. Bytes which do not fit are discarded.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  void receive(DatagramChannel channel) throws IOException {
+    data.clear();
+    source = channel.receive(data);
+    data.flip();
+  }
+
+  /** The address the datagram was sent from. */
+  public SocketAddress getSource() {
+    return source;
+  }
+
+  /** The contents of the datagram, between the position and the limit of the buffer. */
+  public ByteBuffer getData() {
+    return data;
+  }
+
+  /** Give the buffer back to the pool. The datagram must not be used afterwards. */
+  public void release() {
+    source = null;
+    // If the pool is full, the datagram is left to the garbage collector.
+    pool.offer(this);
+  }
+}
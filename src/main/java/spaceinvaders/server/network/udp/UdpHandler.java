@@ -1,67 +1,70 @@
 package spaceinvaders.server.network.udp;
 
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.SocketException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.TransferQueue;
 import spaceinvaders.exceptions.SocketOpeningException;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.ServiceSupervisor;
 
 /**
  * Handles I/O through the UDP protocol.
  *
  * <p>UDP is used for repetitive commands during the game.
+ *
+ * <p>Packets are received on a single thread. They are sent by one or more senders, as given by the
+ * {@link DatagramRouter}, each with a channel and a thread of its own.
  */
 public class UdpHandler implements Service<Void> {
   private static final int MAX_INCOMING_PACKET_SIZE = 256;
 
   private final Service<Void> receiver;
-  private final Service<Void> sender;
+  private final List<Service<Void>> senders = new ArrayList<>();
   private final ExecutorService receiverExecutor;
   private final ExecutorService senderExecutor;
   private final ServiceState state = new ServiceState();
+  private final ServiceSupervisor supervisor = new ServiceSupervisor();
 
   /**
    * Constuct an UDP handler which will start a sender and a receiver.
    *
-   * <p>The port for receiving packets must be a valid one. The system automatically finds a port
+   * <p>The port for receiving packets must be a valid one. The system automatically finds ports
    * available for sending packets. 
    *
    * @param port local port throught which packets are received.
-   * @param incomingPacketQueue queue to put the received packets.
-   * @param outgoingPacketQueue packets are taken out of this queue and sent.
+   * @param packetRouter holds the queues in which received packets are put.
+   * @param router holds the queues out of which datagrams are taken and sent.
    *
    * @throws SocketOpeningException if a server socket could not be opened or it cannot be
    *     bound to the specified local port.
    * @throws SecurityException if a security manager does not allow an operation.
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public UdpHandler(int port, TransferQueue<DatagramPacket> incomingPacketQueue,
-      TransferQueue<DatagramPacket> outgoingPacketQueue) throws SocketOpeningException {
-    if (incomingPacketQueue == null || outgoingPacketQueue == null) {
+  public UdpHandler(int port, PacketRouter packetRouter, DatagramRouter router)
+      throws SocketOpeningException {
+    if (packetRouter == null || router == null) {
       throw new NullPointerException();
     }
-    DatagramSocket receivingSocket = null;
-    DatagramSocket sendingSocket = null;
+    DatagramChannel receivingChannel = null;
     try {
-      receivingSocket = new DatagramSocket(port);
-      sendingSocket = new DatagramSocket();
-    } catch (SocketException socketException) {
-      throw new SocketOpeningException(socketException);
+      receivingChannel = DatagramChannel.open();
+      receivingChannel.bind(new InetSocketAddress(port));
+      for (int index = 0; index < router.getSenderCount(); ++index) {
+        senders.add(new UdpSender(DatagramChannel.open(),router.getQueue(index)));
+      }
+    } catch (IOException ioException) {
+      throw new SocketOpeningException(ioException);
     }
-    receiver = new UdpReceiver(receivingSocket,MAX_INCOMING_PACKET_SIZE,incomingPacketQueue);
-    sender = new UdpSender(sendingSocket,outgoingPacketQueue);
+    receiver = new UdpReceiver(receivingChannel,MAX_INCOMING_PACKET_SIZE,packetRouter);
     receiverExecutor = Executors.newSingleThreadExecutor();
-    senderExecutor = Executors.newSingleThreadExecutor();
+    senderExecutor = Executors.newFixedThreadPool(senders.size());
     state.set(true);
   }
 
@@ -74,26 +77,19 @@ public class UdpHandler implements Service<Void> {
    */
   @Override
   public Void call() throws ExecutionException, InterruptedException {
-    List<Future<?>> future = new ArrayList<>();
-    future.add(receiverExecutor.submit(receiver));
-    future.add(senderExecutor.submit(sender));
-    final long checkingRateMilliseconds = 1000;
-    while (state.get()) {
-      try {
-        for (Future<?> it : future) {
-          if (it.isDone()) {
-            state.set(false);
-            it.get();
-          }
-        }
-        Thread.sleep(checkingRateMilliseconds);
-      } catch (CancellationException | InterruptedException exception) {
-        if (state.get()) {
-          state.set(false);
-          throw new InterruptedException();
-        }
-        break;
+    supervisor.start(receiver,receiverExecutor);
+    for (Service<Void> sender : senders) {
+      supervisor.start(sender,senderExecutor);
+    }
+    try {
+      supervisor.await();
+    } catch (InterruptedException intException) {
+      if (state.get()) {
+        state.set(false);
+        throw new InterruptedException();
       }
+    } finally {
+      state.set(false);
     }
     return null;
   }
@@ -102,8 +98,11 @@ public class UdpHandler implements Service<Void> {
   @Override
   public void shutdown() {
     state.set(false);
+    supervisor.stop();
     receiver.shutdown();
-    sender.shutdown();
+    for (Service<Void> sender : senders) {
+      sender.shutdown();
+    }
     receiverExecutor.shutdownNow();
     senderExecutor.shutdownNow();
   }
@@ -3,38 +3,46 @@ package spaceinvaders.server.network.udp;
 import static java.util.logging.Level.SEVERE;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.util.concurrent.TransferQueue;
+import java.nio.channels.DatagramChannel;
 import java.util.logging.Logger;
-import spaceinvaders.exceptions.SocketOpeningException;
+import spaceinvaders.utility.RingBuffer;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
+import spaceinvaders.utility.WaitStrategyEnum;
 
-/** Receives UDP packets. */
+/**
+ * Receives UDP packets.
+ *
+ * <p>Packets are received into pooled direct buffers. A buffer is taken out of the pool for every
+ * packet, and goes back once the packet is released, so after warming up receiving does not
+ * allocate.
+ */
 class UdpReceiver implements Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(UdpReceiver.class.getName());
 
-  private final DatagramSocket serverSocket;
-  private final TransferQueue<DatagramPacket> incomingPacketQueue;
-  private final Integer maxPacketSize;
+  private final DatagramChannel channel;
+  private final PacketRouter router;
+  private final RingBuffer<ReceivedDatagram> pool;
+  private final int maxPacketSize;
   private final ServiceState state = new ServiceState();
 
   /**
-   * @param serverSocket open socket used for receiving packets.
+   * @param channel open and bound channel used for receiving packets.
    * @param maxPacketSize maximum size of a packet (in bytes).
-   * @param incomingPacketQueue queue to put packets after they are received.
+   * @param router gives the queue in which to put each packet after it is received.
    *
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public UdpReceiver(DatagramSocket serverSocket, int maxPacketSize,
-      TransferQueue<DatagramPacket> incomingPacketQueue) throws SocketOpeningException {
-    if (incomingPacketQueue == null || serverSocket == null) {
+  public UdpReceiver(DatagramChannel channel, int maxPacketSize, PacketRouter router) {
+    if (router == null || channel == null) {
       throw new NullPointerException();
     }
-    this.serverSocket = serverSocket;
-    this.incomingPacketQueue = incomingPacketQueue;
+    this.channel = channel;
+    this.router = router;
     this.maxPacketSize = maxPacketSize;
+    // The receiver never waits for a free buffer, it allocates one instead.
+    pool = new RingBuffer<>(router.getDispatcherCount() * router.getQueue(0).capacity(),
+        WaitStrategyEnum.SPIN);
     state.set(true);
   }
 
@@ -46,13 +54,15 @@ class UdpReceiver implements Service<Void> {
   @Override
   public Void call() throws IOException {
     while (state.get()) {
-      byte[] buffer = new byte[maxPacketSize];
-      DatagramPacket packet = new DatagramPacket(buffer,buffer.length);
+      ReceivedDatagram datagram = pool.poll();
+      if (datagram == null) {
+        datagram = new ReceivedDatagram(maxPacketSize,pool);
+      }
       try {
-        serverSocket.receive(packet);
-        if (!incomingPacketQueue.offer(packet)) {
-          // This should never happen.
-          throw new AssertionError();
+        datagram.receive(channel);
+        if (!router.queueFor(datagram.getSource()).offer(datagram)) {
+          // The dispatcher cannot keep up, so the packet is dropped.
+          datagram.release();
         }
       } catch (IOException ioException) {
         if (state.get()) {
@@ -69,13 +79,17 @@ class UdpReceiver implements Service<Void> {
   }
 
   /**
-   * Close the socket.
+   * Close the channel.
    *
    * <p>No more packets can be received.
    */
   @Override
   public void shutdown() {
     state.set(false);
-    serverSocket.close();
+    try {
+      channel.close();
+    } catch (IOException ioException) {
+      LOGGER.log(SEVERE,ioException.toString(),ioException);
+    }
   }
 }
@@ -3,41 +3,54 @@ package spaceinvaders.server.network.udp;
 import static java.util.logging.Level.SEVERE;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.util.concurrent.TransferQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
+import spaceinvaders.utility.RingBuffer;
 import spaceinvaders.utility.Service;
 import spaceinvaders.utility.ServiceState;
 
-/** Takes UDP packets out of a transfer queue and sends them to their destination. */
+/**
+ * Takes batches of datagrams out of a queue and sends them to their destination.
+ *
+ * <p>All batches waiting in the queue are taken out at once. Every datagram is copied into the
+ * same direct buffer before being sent, so sending does not allocate.
+ *
+ * <p>Batches refused by the queue, because the sender could not keep up, are reported in the log.
+ */
 class UdpSender implements Service<Void> {
   private static final Logger LOGGER = Logger.getLogger(UdpSender.class.getName());
+  private static final int MAX_BATCHES = 64;
+  private static final int MAX_DATAGRAM_SIZE = 65507;
 
-  private final DatagramSocket serverSocket;
-  private final TransferQueue<DatagramPacket> outgoingPacketQueue;
+  private final DatagramChannel channel;
+  private final RingBuffer<DatagramBatch> outgoingQueue;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+  private final List<DatagramBatch> batches = new ArrayList<>(MAX_BATCHES);
   private final ServiceState state = new ServiceState();
+  private long refusedBatches;
 
   /**
-   * Construct an UDP sender over an open socket.
+   * Construct an UDP sender over an open channel.
    *
-   * @param serverSocket socket thought which packets are sent.
-   * @param outgoingPacketQueue queue from which packets are taken out before being sent.
+   * @param channel channel thought which datagrams are sent.
+   * @param outgoingQueue queue from which batches are taken out before being sent.
    *
    * @throws NullPointerException if an argument is {@code null}.
    */
-  public UdpSender(DatagramSocket serverSocket,
-      TransferQueue<DatagramPacket> outgoingPacketQueue) {
-    if (serverSocket == null || outgoingPacketQueue == null) {
+  public UdpSender(DatagramChannel channel, RingBuffer<DatagramBatch> outgoingQueue) {
+    if (channel == null || outgoingQueue == null) {
       throw new NullPointerException();
     }
-    this.serverSocket = serverSocket;
-    this.outgoingPacketQueue = outgoingPacketQueue;
+    this.channel = channel;
+    this.outgoingQueue = outgoingQueue;
     state.set(true);
   }
 
   /**
-   * Start polling packets from the queue and sending them.
+   * Start polling batches from the queue and sending them.
    *
    * @throws IOException if an I/O error occurs.
    * @throws InterruptedException if the service is interrupted prior to shutdown.
@@ -45,35 +58,56 @@ class UdpSender implements Service<Void> {
   @Override
   public Void call() throws IOException, InterruptedException {
     while (state.get()) {
-      DatagramPacket packet = null;
       try {
-        packet = outgoingPacketQueue.take();
+        batches.add(outgoingQueue.take());
       } catch (InterruptedException intException) {
         if (state.get()) {
           throw new InterruptedException();
         }
         break;
       }
-      try {
-        serverSocket.send(packet);
-      } catch (IOException ioException) {
-        if (state.get()) {
-          throw ioException;
-        }
-      } catch (RuntimeException rte) {
-        // Do not stop sending packets if one packet fails.
-        if (state.get()) {
-          LOGGER.log(SEVERE,rte.toString(),rte);
+      outgoingQueue.drainTo(batches,MAX_BATCHES - 1);
+      for (DatagramBatch batch : batches) {
+        for (byte[] datagram : batch.getDatagrams()) {
+          try {
+            buffer.clear();
+            buffer.put(datagram);
+            buffer.flip();
+            channel.send(buffer,batch.getDestination());
+          } catch (IOException ioException) {
+            if (state.get()) {
+              throw ioException;
+            }
+          } catch (RuntimeException rte) {
+            // Do not stop sending packets if one packet fails.
+            if (state.get()) {
+              LOGGER.log(SEVERE,rte.toString(),rte);
+            }
+          }
         }
       }
+      batches.clear();
+      reportRefused();
     }
     return null;
   }
 
-  /** Close the socket, discarding any unsent packets. */
+  private void reportRefused() {
+    final long refused = outgoingQueue.getRefusedCount();
+    if (refused != refusedBatches) {
+      LOGGER.warning("UDP sender fell behind, dropped " + (refused - refusedBatches) + " batches");
+      refusedBatches = refused;
+    }
+  }
+
+  /** Close the channel, discarding any unsent datagrams. */
   @Override
   public void shutdown() {
     state.set(false);
-    serverSocket.close();
+    try {
+      channel.close();
+    } catch (IOException ioException) {
+      LOGGER.log(SEVERE,ioException.toString(),ioException);
+    }
   }
 }
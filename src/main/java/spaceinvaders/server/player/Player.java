@@ -6,6 +6,7 @@ import java.util.concurrent.Future;
 import java.util.logging.Logger;
 import spaceinvaders.command.Command;
 import spaceinvaders.server.network.Connection;
+import spaceinvaders.server.network.senderchain.EncodedFrame;
 
 /** A player which has established a connection and is ready to join a game. */
 public class Player {
@@ -30,7 +31,7 @@ public class Player {
       throw new NullPointerException();
     }
     this.connection = connection;
-    connectionFuture = connectionExecutor.submit(connection);
+    connectionFuture = connection.start(connectionExecutor);
   }
 
   /**
@@ -47,6 +48,20 @@ public class Player {
     connection.send(command);
   }
 
+  /**
+   * Send an already encoded frame to the client.
+   *
+   * <p>The frame is sent over the network right away, together with all pushed commands.
+   *
+   * @throws NullPointerException if the frame is {@code null}.
+   */
+  public void send(EncodedFrame frame) {
+    if (frame == null) {
+      throw new NullPointerException();
+    }
+    connection.send(frame);
+  }
+
   /**
    * Pull all commands received by the player.
    *
@@ -56,6 +71,17 @@ public class Player {
     return connection.readCommands();
   }
 
+  /**
+   * Run an action every time the player receives a command.
+   *
+   * @param listener the action, or {@code null} to stop being notified.
+   *
+   * @see spaceinvaders.server.network.Connection#setCommandListener(Runnable)
+   */
+  public void setCommandListener(Runnable listener) {
+    connection.setCommandListener(listener);
+  }
+
   /**
    * Flush commands to the client.
    *
@@ -102,8 +128,11 @@ public class Player {
    *
    * <p>This remove port represents the UDP port on which the client is listening. It is not the
    * same port as the one from which the client is sending UDP packets.
+   *
+   * @param port the UDP port of the client.
+   * @param binaryFrames true if the client understands binary frames.
    */
-  public void setUdpDestinationPort(int port) {
-    connection.setUdpChain(port);
+  public void setUdpDestinationPort(int port, boolean binaryFrames) {
+    connection.setUdpChain(port,binaryFrames);
   }
 }
@@ -1,12 +1,22 @@
 package spaceinvaders.server.player;
 
+import static java.util.logging.Level.SEVERE;
+
+import java.util.HashSet;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TransferQueue;
+import java.util.logging.Logger;
+import spaceinvaders.Config;
 import spaceinvaders.command.Command;
 import spaceinvaders.command.client.SetPlayerIdCommand;
 import spaceinvaders.command.server.ConfigurePlayerCommand;
@@ -18,20 +28,31 @@ import spaceinvaders.utility.ServiceState;
 /**
  * Manages all players.
  *
- * <p>Wraps a {@link spaceinvaders.server.network.Connection} into a 
+ * <p>Wraps a {@link spaceinvaders.server.network.Connection} into a
  * {@link spaceinvaders.server.player.Player} and forwards it to the
  * {@link spaceinvaders.server.game.GameManager}.
  *
  * <p>It takes connections as an observer to {@link spaceinvaders.server.network.SocketWrapper}.
  * {@link spaceinvaders.server.game.Game} is notified when a
  * {@link Player} is ready to join a game.
+ *
+ * <p>Any number of handshakes may be pending at the same time. Each of them ends as soon as the
+ * client sends its configuration, or when its deadline passes. All handshakes are driven by a
+ * single thread, which is also the thread that notifies the game manager.
  */
 public class PlayerManager extends Observable implements Observer, Service<Void> {
+  private static final Logger LOGGER = Logger.getLogger(PlayerManager.class.getName());
+
   private final TransferQueue<Connection> connectionQueue = new LinkedTransferQueue<>();
   private final ServiceState state = new ServiceState();
   private final ExecutorService threadPool = Executors.newCachedThreadPool();
+  private final ScheduledExecutorService handshakeExecutor =
+      Executors.newSingleThreadScheduledExecutor();
+  private final Set<Handshake> pendingHandshakes = new HashSet<>();
+  private final long handshakeTimeoutMilliseconds;
 
   public PlayerManager() {
+    handshakeTimeoutMilliseconds = Config.getInstance().getHandshakeTimeoutMilliseconds();
     state.set(true);
   }
 
@@ -49,14 +70,13 @@ public class PlayerManager extends Observable implements Observer, Service<Void>
    *
    * <p>When a {@link spaceinvaders.server.network.Connection} arrives, it is transformed into a
    * {@link spaceinvaders.server.player.Player}. An ID is sent to the corresponding client. If the
-   * client responds with the appropriate command within a second, the player is kept. Otherwise, it
-   * is discarded.
+   * client responds with the appropriate command before the handshake times out, the player is
+   * kept. Otherwise, it is discarded.
    *
    * @throws InterruptedException if the service is interrupted prior to shutdown.
    */
   @Override
   public Void call() throws InterruptedException {
-    final int responseTimeoutMilliseconds = 1000;
     while (state.get()) {
       Connection connection = null;
       try {
@@ -67,40 +87,26 @@ public class PlayerManager extends Observable implements Observer, Service<Void>
         }
         break;
       }
-      Player player = new Player(connection,threadPool);
-      player.push(new SetPlayerIdCommand(player.getId()));
-      player.flush();
+      final Handshake handshake = new Handshake(connection);
       try {
-        Thread.sleep(responseTimeoutMilliseconds);
-      } catch (InterruptedException intException) {
-        if (state.get()) {
-          throw new InterruptedException();
-        }
-        break;
-      }
-      List<Command> commands = player.pull();
-      if (commands.size() == 1) {
-        Command command = commands.get(0);
-        if (!(command instanceof ConfigurePlayerCommand)) {
-          // This should never happen.
-          throw new AssertionError();
-        }
-        command.setExecutor(player);
-        command.execute();
-        setChanged();
-        // Notify the game manager.
-        notifyObservers(player);
-      } else {
-        // Player did not respect the protocol or he went offline.
-        player.close();
+        handshakeExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            handshake.begin();
+          }
+        });
+      } catch (RejectedExecutionException rejectedException) {
+        // The manager is shutting down.
+        connection.shutdown();
       }
     }
-    return null; 
+    return null;
   }
 
   @Override
   public void shutdown() {
     state.set(false);
+    handshakeExecutor.shutdownNow();
     threadPool.shutdownNow();
   }
 
@@ -116,4 +122,108 @@ public class PlayerManager extends Observable implements Observer, Service<Void>
     }
     addObserver(gameManager);
   }
+
+  /**
+   * The exchange through which a connection becomes a player.
+   *
+   * <p>All methods are called on the {@code handshakeExecutor}.
+   */
+  private class Handshake implements Runnable {
+    private final Connection connection;
+    private Player player;
+    private ScheduledFuture<?> deadline;
+
+    Handshake(Connection connection) {
+      this.connection = connection;
+    }
+
+    /** Send the ID to the client and start waiting for its configuration. */
+    void begin() {
+      try {
+        player = new Player(connection,threadPool);
+        pendingHandshakes.add(this);
+        player.setCommandListener(this);
+        player.push(new SetPlayerIdCommand(player.getId()));
+        player.flush();
+        deadline = handshakeExecutor.schedule(new Runnable() {
+          @Override
+          public void run() {
+            expire();
+          }
+        },handshakeTimeoutMilliseconds,TimeUnit.MILLISECONDS);
+      } catch (RuntimeException rte) {
+        LOGGER.log(SEVERE,rte.toString(),rte);
+        pendingHandshakes.remove(this);
+        if (player == null) {
+          connection.shutdown();
+        } else {
+          player.setCommandListener(null);
+          player.close();
+        }
+      }
+    }
+
+    /** A command has been received by the connection. Called on the thread which received it. */
+    @Override
+    public void run() {
+      try {
+        handshakeExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            commandReceived();
+          }
+        });
+      } catch (RejectedExecutionException rejectedException) {
+        // The manager is shutting down.
+        return;
+      }
+    }
+
+    private void commandReceived() {
+      if (!pendingHandshakes.contains(this)) {
+        return;
+      }
+      try {
+        final List<Command> commands = player.pull();
+        if (commands.isEmpty()) {
+          return;
+        }
+        end();
+        final Command command = commands.get(0);
+        if (!(command instanceof ConfigurePlayerCommand)) {
+          // Player did not respect the protocol.
+          player.close();
+          return;
+        }
+        command.setExecutor(player);
+        command.execute();
+        setChanged();
+        // Notify the game manager.
+        notifyObservers(player);
+      } catch (RuntimeException rte) {
+        // Nobody reads the outcome of this task, so the failure must be handled here.
+        LOGGER.log(SEVERE,rte.toString(),rte);
+        end();
+        player.close();
+      }
+    }
+
+    private void expire() {
+      if (!pendingHandshakes.contains(this)) {
+        return;
+      }
+      end();
+      LOGGER.info("Handshake with " + player.getId() + " timed out");
+      // Player went offline or is too slow.
+      player.close();
+    }
+
+    /** Stop waiting for the client. Ending a handshake more than once has no effect. */
+    private void end() {
+      if (pendingHandshakes.remove(this)) {
+        player.setCommandListener(null);
+        deadline.cancel(false);
+      }
+    }
+  }
 }
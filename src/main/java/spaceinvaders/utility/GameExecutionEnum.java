@@ -0,0 +1,9 @@
+package spaceinvaders.utility;
+
+/** The ways in which the server can run its games. */
+public enum GameExecutionEnum {
+  /** Every game runs on a thread of its own. */
+  THREAD_PER_GAME,
+  /** Games are spread across a fixed number of simulation threads. */
+  SHARDED
+}
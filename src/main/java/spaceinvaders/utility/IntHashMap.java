@@ -0,0 +1,169 @@
+package spaceinvaders.utility;
+
+/**
+ * Hash map with primitive {@code int} keys.
+ *
+ * <p>Keys are not boxed. Entries are kept in two parallel arrays, using open addressing with
+ * linear probing. Removal shifts the following entries back instead of leaving tombstones, so
+ * lookups stay short no matter how many entries have been removed.
+ *
+ * <p>{@code null} values are not allowed. The implementation is not thread-safe.
+ *
+ * @param <V> type of the values.
+ */
+public class IntHashMap<V> {
+  private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  private int[] keys;
+  private Object[] values;
+  private int mask;
+  private int size = 0;
+
+  /** Construct an empty map. */
+  public IntHashMap() {
+    this(DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Construct an empty map, which holds {@code expectedSize} entries without resizing.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative.
+   */
+  public IntHashMap(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException();
+    }
+    int capacity = 2;
+    while (capacity < expectedSize * 2) {
+      capacity <<= 1;
+    }
+    allocate(capacity);
+  }
+
+  /**
+   * @return the value mapped to {@code key}, or {@code null} if there is none.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    int slot = home(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public boolean containsKey(int key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Map {@code key} to {@code value}.
+   *
+   * @return the value previously mapped to {@code key}, or {@code null} if there was none.
+   *
+   * @throws NullPointerException if {@code value} is {@code null}.
+   */
+  @SuppressWarnings("unchecked")
+  public V put(int key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int slot = home(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        V old = (V) values[slot];
+        values[slot] = value;
+        return old;
+      }
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size * 2 > values.length) {
+      resize(values.length * 2);
+    }
+    return null;
+  }
+
+  /**
+   * Remove the mapping of {@code key}.
+   *
+   * @return the value which was mapped to {@code key}, or {@code null} if there was none.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(int key) {
+    int slot = home(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        V old = (V) values[slot];
+        shiftBack(slot);
+        --size;
+        return old;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Remove all entries. */
+  public void clear() {
+    for (int slot = 0; slot < values.length; ++slot) {
+      values[slot] = null;
+    }
+    size = 0;
+  }
+
+  /** Fill the hole at {@code slot} with the entries of the same probe sequence which follow it. */
+  private void shiftBack(int slot) {
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    while (values[next] != null) {
+      /* An entry can fill the hole only if the hole is not before its home slot. */
+      if (((next - home(keys[next])) & mask) >= ((next - hole) & mask)) {
+        keys[hole] = keys[next];
+        values[hole] = values[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    values[hole] = null;
+  }
+
+  private int home(int key) {
+    final int hash = key * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  private void resize(int capacity) {
+    final int[] oldKeys = keys;
+    final Object[] oldValues = values;
+    allocate(capacity);
+    for (int slot = 0; slot < oldValues.length; ++slot) {
+      if (oldValues[slot] != null) {
+        int index = home(oldKeys[slot]);
+        while (values[index] != null) {
+          index = (index + 1) & mask;
+        }
+        keys[index] = oldKeys[slot];
+        values[index] = oldValues[slot];
+      }
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package spaceinvaders.utility;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue with many producers and a single consumer.
+ *
+ * <p>All slots are allocated up front, so adding an element does not allocate. Every slot carries
+ * a sequence number, which tells producers when the slot is free and the consumer when it has been
+ * filled. Producers claim slots with a compare-and-set on the tail, so they never block each
+ * other.
+ *
+ * <p>A full buffer does not block producers. The element is refused instead, and the refusal is
+ * counted, so the caller can decide whether to drop it.
+ *
+ * <p>Any thread may add elements, but only one thread at a time may take them out. How the
+ * consumer waits for elements is given by a {@link WaitStrategyEnum}.
+ *
+ * @param <E> type of the elements.
+ */
+public class RingBuffer<E> {
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+  private final LongAdder refused = new LongAdder();
+  private final WaitStrategyEnum waitStrategy;
+  private volatile Thread parkedConsumer;
+
+  /**
+   * @param capacity maximum number of elements. Rounded up to a power of two.
+   * @param waitStrategy how the consumer waits for elements.
+   *
+   * @throws IllegalArgumentException if {@code capacity} is not positive or too large.
+   * @throws NullPointerException if {@code waitStrategy} is {@code null}.
+   */
+  public RingBuffer(int capacity, WaitStrategyEnum waitStrategy) {
+    if (capacity < 1 || capacity > (1 << 30)) {
+      throw new IllegalArgumentException();
+    }
+    if (waitStrategy == null) {
+      throw new NullPointerException();
+    }
+    int size = 1;
+    while (size < capacity) {
+      size <<= 1;
+    }
+    elements = new AtomicReferenceArray<>(size);
+    sequences = new AtomicLongArray(size);
+    for (int index = 0; index < size; ++index) {
+      sequences.set(index,index);
+    }
+    mask = size - 1;
+    this.waitStrategy = waitStrategy;
+  }
+
+  /**
+   * Add an element, unless the buffer is full.
+   *
+   * @return true if the element has been added, false if the buffer is full.
+   *
+   * @throws NullPointerException if argument is {@code null}.
+   */
+  public boolean offer(E element) {
+    if (element == null) {
+      throw new NullPointerException();
+    }
+    long position = tail.get();
+    while (true) {
+      final long difference = sequences.get(index(position)) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position,position + 1)) {
+          break;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        // The consumer has not freed this slot yet.
+        refused.increment();
+        return false;
+      } else {
+        // Another producer has claimed this slot.
+        position = tail.get();
+      }
+    }
+    final int index = index(position);
+    elements.lazySet(index,element);
+    sequences.set(index,position + 1);
+    if (waitStrategy.wakesConsumer()) {
+      final Thread consumer = parkedConsumer;
+      if (consumer != null) {
+        LockSupport.unpark(consumer);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Take out the oldest element, if there is one. Must be called only by the consumer.
+   *
+   * @return the element, or {@code null} if the buffer is empty.
+   */
+  public E poll() {
+    final long position = head.get();
+    final int index = index(position);
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    final E element = elements.get(index);
+    elements.lazySet(index,null);
+    sequences.lazySet(index,position + mask + 1);
+    head.lazySet(position + 1);
+    return element;
+  }
+
+  /**
+   * Take out the oldest element, waiting for one if the buffer is empty. Must be called only by
+   * the consumer.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public E take() throws InterruptedException {
+    int idleCount = 0;
+    while (true) {
+      final E element = poll();
+      if (element != null) {
+        return element;
+      }
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      waitStrategy.idle(this,idleCount++);
+    }
+  }
+
+  /**
+   * Take out elements, oldest first, without waiting. Must be called only by the consumer.
+   *
+   * @param collection where the elements are added.
+   * @param maxElements maximum number of elements taken out.
+   *
+   * @return the number of elements taken out.
+   *
+   * @throws NullPointerException if {@code collection} is {@code null}.
+   */
+  public int drainTo(Collection<? super E> collection, int maxElements) {
+    if (collection == null) {
+      throw new NullPointerException();
+    }
+    int count = 0;
+    while (count < maxElements) {
+      final E element = poll();
+      if (element == null) {
+        break;
+      }
+      collection.add(element);
+      ++count;
+    }
+    return count;
+  }
+
+  /** Number of elements in the buffer. Only an estimate, while other threads use the buffer. */
+  public int size() {
+    final long size = tail.get() - head.get();
+    return (int) Math.max(0,Math.min(size,capacity()));
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /** Number of elements which have been added so far. */
+  public long getOfferedCount() {
+    return tail.get();
+  }
+
+  /** Number of elements which have been refused so far, because the buffer was full. */
+  public long getRefusedCount() {
+    return refused.sum();
+  }
+
+  /**
+   * Park the consumer until a producer adds an element.
+   *
+   * <p>The consumer announces itself before checking the buffer once more. Since a producer
+   * publishes the element before looking for a parked consumer, one of them always sees the other.
+   */
+  void parkConsumer() {
+    parkedConsumer = Thread.currentThread();
+    final long position = head.get();
+    if (sequences.get(index(position)) != position + 1) {
+      LockSupport.park(this);
+    }
+    parkedConsumer = null;
+  }
+
+  private int index(long position) {
+    return (int) position & mask;
+  }
+}
@@ -0,0 +1,88 @@
+package spaceinvaders.utility;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * Watches over the services started by another service.
+ *
+ * <p>Every service completes a {@link CompletableFuture} as soon as it terminates, so the
+ * supervisor is notified right away, instead of checking on its services periodically. The
+ * supervisor stops waiting when the first of its services terminates, or when it is stopped.
+ *
+ * <p>The implementation is thread-safe.
+ */
+public class ServiceSupervisor {
+  private final CompletableFuture<Void> termination = new CompletableFuture<>();
+
+  /**
+   * Run a service on an executor.
+   *
+   * <p>Shutting down the executor interrupts the service, but does not complete the future if the
+   * service has not started yet.
+   *
+   * @return a future which is completed with the result of the service, or with the exception
+   *     thrown by it.
+   *
+   * @throws NullPointerException if an argument is {@code null}.
+   * @throws RejectedExecutionException if the service cannot be executed.
+   */
+  public static <T> CompletableFuture<T> submit(final Service<T> service, Executor executor) {
+    if (service == null || executor == null) {
+      throw new NullPointerException();
+    }
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          future.complete(service.call());
+        } catch (Throwable throwable) {
+          future.completeExceptionally(throwable);
+        }
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Run a service on an executor, under supervision.
+   *
+   * @return a future which is completed when the service terminates.
+   *
+   * @throws NullPointerException if an argument is {@code null}.
+   * @throws RejectedExecutionException if the service cannot be executed.
+   */
+  public <T> CompletableFuture<T> start(Service<T> service, Executor executor) {
+    final CompletableFuture<T> future = submit(service,executor);
+    future.whenComplete(new BiConsumer<T,Throwable>() {
+      @Override
+      public void accept(T result, Throwable throwable) {
+        if (throwable == null) {
+          termination.complete(null);
+        } else {
+          termination.completeExceptionally(throwable);
+        }
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Wait until one of the supervised services terminates, or the supervisor is stopped.
+   *
+   * @throws ExecutionException if the first service to terminate threw an exception.
+   * @throws InterruptedException if the current thread is interrupted while waiting.
+   */
+  public void await() throws ExecutionException, InterruptedException {
+    termination.get();
+  }
+
+  /** Stop waiting for the supervised services. They have to be shut down separately. */
+  public void stop() {
+    termination.complete(null);
+  }
+}
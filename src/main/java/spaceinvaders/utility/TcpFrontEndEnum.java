@@ -0,0 +1,9 @@
+package spaceinvaders.utility;
+
+/** The ways in which the server reads from TCP connections. */
+public enum TcpFrontEndEnum {
+  /** Every connection blocks a thread of its own while reading. */
+  THREAD_PER_CONNECTION,
+  /** All connections are multiplexed on a fixed number of selector threads. */
+  SELECTOR
+}
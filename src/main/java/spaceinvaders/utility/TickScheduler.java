@@ -0,0 +1,99 @@
+package spaceinvaders.utility;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces a loop at a fixed timestep.
+ *
+ * <p>Ticks are scheduled against absolute deadlines, so the time spent doing the work of a tick is
+ * subtracted from the wait that follows it. A loop that falls behind runs the missed ticks back to
+ * back, without waiting. If it falls behind by more than a given number of ticks, the backlog is
+ * skipped and the schedule restarts from the current time.
+ *
+ * <p>The statistics can be read from any thread. All other methods must be called from the thread
+ * running the loop.
+ */
+public class TickScheduler {
+  private final long periodNanos;
+  private final int maxCatchUpTicks;
+  private long nextTickNanos;
+  private long tickStartNanos;
+  private volatile long tickCount;
+  private volatile long lagNanos;
+  private volatile long workNanos;
+  private volatile long skippedTicks;
+
+  /**
+   * @param ticksPerSecond the rate of the loop.
+   * @param maxCatchUpTicks how many ticks the loop may fall behind before the backlog is skipped.
+   *
+   * @throws IllegalArgumentException if an argument is not positive.
+   */
+  public TickScheduler(int ticksPerSecond, int maxCatchUpTicks) {
+    if (ticksPerSecond <= 0 || maxCatchUpTicks <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.periodNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+    this.maxCatchUpTicks = maxCatchUpTicks;
+  }
+
+  /** Start the schedule, with the first tick due immediately. */
+  public void start() {
+    nextTickNanos = System.nanoTime();
+    tickStartNanos = nextTickNanos;
+  }
+
+  /** Mark the beginning of the work done in a tick. */
+  public void beginTick() {
+    tickStartNanos = System.nanoTime();
+  }
+
+  /**
+   * Mark the end of the work done in a tick and wait until the next one is due.
+   *
+   * <p>Returns immediately if the loop is behind schedule.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void awaitNextTick() throws InterruptedException {
+    final long now = System.nanoTime();
+    workNanos = now - tickStartNanos;
+    ++tickCount;
+    nextTickNanos += periodNanos;
+    long lag = now - nextTickNanos;
+    if (lag > periodNanos * maxCatchUpTicks) {
+      /* Too far behind, drop the backlog. */
+      skippedTicks += lag / periodNanos;
+      nextTickNanos = now;
+      lag = 0;
+    }
+    lagNanos = Math.max(0,lag);
+    if (lag < 0) {
+      TimeUnit.NANOSECONDS.sleep(-lag);
+    }
+  }
+
+  /** Number of ticks completed since the start. */
+  public long getTickCount() {
+    return tickCount;
+  }
+
+  /** How far behind schedule the loop was at the end of the last tick, in nanoseconds. */
+  public long getLagNanos() {
+    return lagNanos;
+  }
+
+  /** Time spent doing the work of the last tick, in nanoseconds. */
+  public long getWorkNanos() {
+    return workNanos;
+  }
+
+  /** Number of ticks dropped because the loop fell too far behind. */
+  public long getSkippedTicks() {
+    return skippedTicks;
+  }
+
+  public long getPeriodNanos() {
+    return periodNanos;
+  }
+}
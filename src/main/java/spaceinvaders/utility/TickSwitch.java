@@ -0,0 +1,72 @@
+package spaceinvaders.utility;
+
+/**
+ * Used to delay an action by a number of ticks.
+ *
+ * <p>This is a switch which is initially off. After a given number of ticks of its
+ * {@link TimerWheel} it turns on automatically. After the switch is turned off, the cycle starts
+ * again.
+ *
+ * <p>Turning the switch off while it is in the waiting stage has no effect.
+ */
+public class TickSwitch extends TimerWheel.Timer {
+  private final TimerWheel wheel;
+  private long rateTicks;
+  private boolean on = false;
+
+  /**
+   * @param wheel the wheel which drives this switch.
+   * @param rateTicks number of ticks after which the switch turns on.
+   *
+   * @throws NullPointerException if {@code wheel} is {@code null}.
+   */
+  public TickSwitch(TimerWheel wheel, long rateTicks) {
+    if (wheel == null) {
+      throw new NullPointerException();
+    }
+    this.wheel = wheel;
+    setRate(rateTicks);
+  }
+
+  /** Start the cycle, with the switch initially turned off. */
+  public void start() {
+    on = false;
+    wheel.schedule(this,rateTicks);
+  }
+
+  /** Stop the cycle. The switch stays off. */
+  public void stop() {
+    on = false;
+    wheel.cancel(this);
+  }
+
+  public boolean isOn() {
+    return on;
+  }
+
+  /**
+   * Turn the switch off and resume the cycle.
+   *
+   * <p>Has no effect if the switch is already off.
+   */
+  public void toggle() {
+    if (on) {
+      on = false;
+      wheel.schedule(this,rateTicks);
+    }
+  }
+
+  /**
+   * Set the number of ticks for the next cycles.
+   *
+   * <p>Values lower than one tick are rounded up to one tick.
+   */
+  public void setRate(long rateTicks) {
+    this.rateTicks = Math.max(1,rateTicks);
+  }
+
+  @Override
+  protected void expire() {
+    on = true;
+  }
+}
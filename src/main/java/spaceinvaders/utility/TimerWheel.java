@@ -0,0 +1,115 @@
+package spaceinvaders.utility;
+
+/**
+ * Hashed timing wheel, driven by ticks instead of a clock.
+ *
+ * <p>The wheel does not own any thread. Time moves forward only when {@link #advance() advance} is
+ * called, usually once per iteration of a game loop. Timers expire on the thread that advances the
+ * wheel.
+ *
+ * <p>Timers are linked directly into the slots of the wheel, so scheduling and cancelling do not
+ * allocate. Delays longer than the wheel itself are handled by leaving the timer in its slot until
+ * the wheel has turned enough times.
+ *
+ * <p>The implementation is not thread-safe.
+ */
+public class TimerWheel {
+  private final Timer[] slots;
+  private final int mask;
+  private long currentTick = 0;
+
+  /**
+   * @param slotCount number of slots of the wheel. Must be a power of two.
+   *
+   * @throws IllegalArgumentException if {@code slotCount} is not a positive power of two.
+   */
+  public TimerWheel(int slotCount) {
+    if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+      throw new IllegalArgumentException();
+    }
+    slots = new Timer[slotCount];
+    mask = slotCount - 1;
+  }
+
+  /**
+   * Schedule {@code timer} to expire after {@code delayTicks} ticks.
+   *
+   * <p>If the timer is already scheduled, it is rescheduled.
+   *
+   * @throws IllegalArgumentException if {@code delayTicks} is not positive.
+   * @throws NullPointerException if {@code timer} is {@code null}.
+   */
+  public void schedule(Timer timer, long delayTicks) {
+    if (timer == null) {
+      throw new NullPointerException();
+    }
+    if (delayTicks <= 0) {
+      throw new IllegalArgumentException();
+    }
+    cancel(timer);
+    timer.deadline = currentTick + delayTicks;
+    int slot = (int) (timer.deadline & mask);
+    timer.wheel = this;
+    timer.next = slots[slot];
+    if (timer.next != null) {
+      timer.next.prev = timer;
+    }
+    slots[slot] = timer;
+  }
+
+  /**
+   * Cancel {@code timer}.
+   *
+   * <p>Cancelling a timer which is not scheduled has no effect.
+   */
+  public void cancel(Timer timer) {
+    if (timer.wheel != this) {
+      return;
+    }
+    if (timer.prev == null) {
+      slots[(int) (timer.deadline & mask)] = timer.next;
+    } else {
+      timer.prev.next = timer.next;
+    }
+    if (timer.next != null) {
+      timer.next.prev = timer.prev;
+    }
+    timer.wheel = null;
+    timer.prev = null;
+    timer.next = null;
+  }
+
+  /** Move forward one tick, expiring all timers which are due. */
+  public void advance() {
+    ++currentTick;
+    Timer timer = slots[(int) (currentTick & mask)];
+    while (timer != null) {
+      Timer next = timer.next;
+      if (timer.deadline <= currentTick) {
+        cancel(timer);
+        timer.expire();
+      }
+      timer = next;
+    }
+  }
+
+  public long getCurrentTick() {
+    return currentTick;
+  }
+
+  /** A timer that can be scheduled on a {@link TimerWheel}. */
+  public abstract static class Timer {
+    private TimerWheel wheel;
+    private Timer prev;
+    private Timer next;
+    private long deadline;
+
+    /** @return true if the timer is waiting to expire, false otherwise. */
+    public boolean isScheduled() {
+      return wheel != null;
+    }
+
+    /** Called by the wheel when the timer expires. */
+    protected abstract void expire();
+  }
+}
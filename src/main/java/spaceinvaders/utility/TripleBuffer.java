@@ -0,0 +1,57 @@
+package spaceinvaders.utility;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Three buffers shared by one writer and one reader, without locking.
+ *
+ * <p>The writer fills the back buffer and publishes it, which swaps it with the middle buffer. The
+ * reader takes the front buffer, which is swapped with the middle buffer whenever a newer one has
+ * been published. Each side only ever sees buffers which the other side is not using, and a swap is
+ * a single atomic operation, so the reader always sees a complete buffer.
+ *
+ * <p>The implementation is thread-safe, as long as there is a single writer thread and a single
+ * reader thread.
+ *
+ * @param <T> type of the buffers.
+ */
+public class TripleBuffer<T> {
+  private static final int INDEX_MASK = 3;
+  private static final int FRESH = 4;
+
+  private final Object[] buffers;
+  /* Index of the middle buffer, flagged with FRESH if the reader has not taken it yet. */
+  private final AtomicInteger middle = new AtomicInteger(1);
+  private int back = 2;
+  private int front = 0;
+
+  /**
+   * @throws NullPointerException if an argument is {@code null}.
+   */
+  public TripleBuffer(T first, T second, T third) {
+    if (first == null || second == null || third == null) {
+      throw new NullPointerException();
+    }
+    buffers = new Object[] {first,second,third};
+  }
+
+  /** The buffer which the writer fills next. Called by the writer. */
+  @SuppressWarnings("unchecked")
+  public T getBack() {
+    return (T) buffers[back];
+  }
+
+  /** Make the back buffer the newest one, and get a new back buffer. Called by the writer. */
+  public void publish() {
+    back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+  }
+
+  /** The newest buffer published by the writer. Called by the reader. */
+  @SuppressWarnings("unchecked")
+  public T getFront() {
+    if ((middle.get() & FRESH) != 0) {
+      front = middle.getAndSet(front) & INDEX_MASK;
+    }
+    return (T) buffers[front];
+  }
+}
@@ -0,0 +1,49 @@
+package spaceinvaders.utility;
+
+/**
+ * How the consumer of a {@link RingBuffer} waits for elements.
+ *
+ * <p>Busier strategies react faster, but keep a processor busy while the buffer is empty.
+ */
+public enum WaitStrategyEnum {
+  /** Keep polling. Lowest latency, but burns a whole processor. */
+  SPIN {
+    @Override
+    void idle(RingBuffer<?> buffer, int idleCount) {
+      // Poll again right away.
+    }
+  },
+  /** Give the processor to other threads between polls. */
+  YIELD {
+    @Override
+    void idle(RingBuffer<?> buffer, int idleCount) {
+      Thread.yield();
+    }
+  },
+  /** Spin for a short while, then sleep until a producer wakes the consumer up. */
+  PARK {
+    @Override
+    void idle(RingBuffer<?> buffer, int idleCount) {
+      if (idleCount < SPINS_BEFORE_PARKING) {
+        Thread.yield();
+      } else {
+        buffer.parkConsumer();
+      }
+    }
+  };
+
+  private static final int SPINS_BEFORE_PARKING = 16;
+
+  /**
+   * Wait a little, after the consumer has found the buffer empty.
+   *
+   * @param buffer the buffer which has been found empty.
+   * @param idleCount how many times in a row the buffer has been found empty before.
+   */
+  abstract void idle(RingBuffer<?> buffer, int idleCount);
+
+  /** True if producers must wake up the consumer. */
+  boolean wakesConsumer() {
+    return this == PARK;
+  }
+}